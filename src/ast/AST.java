@@ -1,6 +1,7 @@
 package ast;
 
 import java.util.*;
+import lexer.Symbol;
 import visitor.*;
 
 /**
@@ -8,39 +9,48 @@ import visitor.*;
  *  each node contains<ol><li> references to its kids, <li>its unique node number
  *  used for printing/debugging, <li>its decoration used for constraining
  *  and code generation, and <li>a label for code generation</ol>
- *  The AST is built by the Parser
+ *  The AST is built by the Parser; node numbers are given out by the
+ *  AstContext of the compilation (a node built outside any context is
+ *  numbered 0)
  */
 public abstract class AST {
 
     protected ArrayList<AST> kids;
-    private static boolean calledOnce = false, secCall = true;
-    private static AST parent;
     protected int nodeNum;
     protected AST decoration;
     // label for generated code of tree
     protected String label = "";
 
+    // set by addKid when this node becomes a kid
     protected AST parentNode = null;
-    public static int NodeCount = 0;
+
+    // the structural hash once worked out; kept until the kids of this node
+    // or of a node below it change
+    private int structuralHash;
+    private boolean hashed = false;
 
     public AST() {
-        if (!calledOnce) {
-            calledOnce = true;
-            parent = this;
-            secCall = false;
-        }
-        else if (!secCall) {
-            secCall = true;
-            parentNode = parent;
-        }
-        kids = new ArrayList<AST>();
-        NodeCount++;
-        nodeNum = NodeCount;
+        this(new ArrayList<AST>());
     }
+
+    /**
+     *  @param kids is the list to keep the kids in; null for nodes that keep
+     *  their kids themselves (see FixedArityTree)
+     */
+    protected AST(ArrayList<AST> kids) {
+        this.kids = kids;
+    }
+
+    /**
+     *  @return the number of levels in this subtree (1 for a leaf); it walks
+     *  the subtree on each call, so it always sees the tree as it is now. For
+     *  an array read use the tree's AstMetadata, which describes the tree as
+     *  it was when the metadata was computed
+     */
     public int depth() {
         int maxDepth = 0;
-        for (AST kid : kids) {
-            int kidDepth = kid.depth();
+        for (int i = 1; i <= kidCount(); i++) {
+            int kidDepth = getKid(i).depth();
             if (kidDepth > maxDepth) {
                 maxDepth = kidDepth;
             }
@@ -79,8 +89,12 @@ public abstract class AST {
         return kids.size();
     }
 
-    public ArrayList<AST> getKids() {
-        return kids;
+    /**
+     *  @return an unmodifiable list of the kids; addKid and replaceKid change
+     *  them
+     */
+    public List<AST> getKids() {
+        return Collections.unmodifiableList(kids);
     }
 
     /**
@@ -94,12 +108,123 @@ public abstract class AST {
 
     public abstract Object accept(OffsetVisitor v);
 
+    /**
+     *  accept a typed visitor for this node
+     *  @param context is passed on to the visitor
+     *  @return the visitor's result for this node
+     */
+    public abstract <R, C> R accept(GenericVisitor<R, C> v, C context);
+
+    /**
+     *  accept a visitor with int results for this node
+     *  @param context is passed on to the visitor
+     *  @return the visitor's result for this node
+     */
+    public abstract <C> int accept(IntVisitor<C> v, C context);
+
     public AST addKid(AST kid) {
         kid.parentNode = this;
         kids.add(kid);
+        kidsChanged();
         return this;
     }
 
+    /**
+     *  replace a kid of this node, e.g. to edit a tree after it was built
+     *  @param i is the number of the kid to replace; it starts with kid number one
+     *  @param kid is the new kid
+     *  @return the kid replaced; it no longer has a parent
+     */
+    public AST replaceKid(int i, AST kid) {
+        if ((i <= 0) || (i > kidCount())) {
+            throw new IndexOutOfBoundsException("no kid " + i + " in node " + nodeNum);
+        }
+        AST old = kids.set(i - 1, kid);
+        adopt(old, kid);
+        return old;
+    }
+
+    /**
+     *  make kid the kid of this node in place of old
+     */
+    void adopt(AST old, AST kid) {
+        if (old.parentNode == this) {
+            old.parentNode = null;
+        }
+        kid.parentNode = this;
+        kidsChanged();
+    }
+
+    /**
+     *  forget the structural hashes of this node and of its ancestors, which
+     *  a change to this node's kids makes stale; a node's hash is only kept
+     *  while its kids' hashes are, so the walk up stops at the first node
+     *  without one
+     */
+    void kidsChanged() {
+        for (AST t = this; t != null && t.hashed; t = t.parentNode) {
+            t.hashed = false;
+        }
+    }
+
+    /**
+     *  @return a hash of the subtree's structure: the kinds and symbols of its
+     *  nodes and the shape of the subtree; structurally equal subtrees (see
+     *  structurallyEquals) have the same hash. Decorations, labels and node
+     *  numbers are not part of it. It's worked out from the kids' hashes and
+     *  kept, so asking again is a field read; addKid and replaceKid drop the
+     *  kept hashes of the node changed and its ancestors. A shared subtree
+     *  (see HashConser) only has a link to its last parent, so an edit inside
+     *  it leaves the hashes of its other parents stale
+     */
+    public int structuralHash() {
+        if (!hashed) {
+            int hash = nodeHash(this);
+            for (int i = 1; i <= kidCount(); i++) {
+                hash = combine(hash, getKid(i).structuralHash());
+            }
+            structuralHash = hash;
+            hashed = true;
+        }
+        return structuralHash;
+    }
+
+    /**
+     *  @return the part of the structural hash of t that comes from t itself
+     */
+    private static int nodeHash(AST t) {
+        Symbol symbol = NodeKind.symbolOf(t);
+        return 31 * NodeKind.of(t).ordinal() + (symbol == null ? 0 : symbol.toString().hashCode());
+    }
+
+    /**
+     *  @return the structural hash of a node given the hash so far and the
+     *  hash of its next kid
+     */
+    private static int combine(int hash, int kidHash) {
+        return 31 * hash + kidHash;
+    }
+
+    /**
+     *  @return true if t has the same kind and symbol as this node and its
+     *  kids are structurally equal to this node's kids, in order
+     */
+    public boolean structurallyEquals(AST t) {
+        if (t == this) {
+            return true;
+        }
+        if (t.getClass() != getClass() || t.kidCount() != kidCount()
+                || NodeKind.symbolOf(t) != NodeKind.symbolOf(this)) {
+            return false;
+        }
+        for (int i = 1; i <= kidCount(); i++) {
+            if (!getKid(i).structurallyEquals(t.getKid(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void setLabel(String label) {
         this.label = label;
     }
@@ -108,6 +233,11 @@ public abstract class AST {
         return label;
     }
 
+    /**
+     *  @return the level of this node in the whole tree (1 for the root); it
+     *  follows the parent links up on each call, where AstMetadata.level is
+     *  an array read
+     */
     public int getLevel(){
         int level = 0;
         AST parent = this;
@@ -120,4 +250,17 @@ public abstract class AST {
     private AST getParent(){
         return this.parentNode;
     }
+
+    /**
+     *  @return true if this node is a proper ancestor of t; see AstMetadata
+     *  for an interval check
+     */
+    public boolean isAncestorOf(AST t) {
+        for (AST parent = t.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == this) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -10,6 +10,14 @@ public class ActualArgsTree extends AST {
         return visitor.visitActualArgsTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitActualArgsTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitActualArgsTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitAssignTree(this);
     }
@@ -4,18 +4,31 @@ import lexer.Symbol;
 import lexer.Token;
 import visitor.*;
 
-public class AddOpTree extends AST {
+public class AddOpTree extends FixedArityTree {
 
     private Symbol symbol;
 
     public AddOpTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public AddOpTree(Symbol symbol) {
+        super(2);
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitAddOpTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitAddOpTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitAddOpTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitAddOpTree(this);
     }
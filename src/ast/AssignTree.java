@@ -2,14 +2,24 @@ package ast;
 
 import visitor.*;
 
-public class AssignTree extends AST {
+public class AssignTree extends FixedArityTree {
 
-    public AssignTree() {}
+    public AssignTree() {
+        super(2);
+    }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitAssignTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitAssignTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitAssignTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitAssignTree(this);
     }
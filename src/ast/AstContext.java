@@ -0,0 +1,58 @@
+package ast;
+
+import lexer.Symbol;
+
+/**
+ * An AstContext holds the state shared by the trees of one compilation;
+ * it numbers the nodes in the order they are created (the numbers are
+ * used for printing/debugging)<br>
+ * The parser allocates all of its nodes through newTree<br>
+ * Each compilation uses its own context, so parsers running on separate
+ * threads don't share any state; a context itself must only be used by
+ * one thread at a time
+ */
+public class AstContext {
+
+    private int nodeCount = 0;
+
+    /**
+     * @param symbol is the Symbol for kinds that carry one; ignored otherwise
+     * @return a new node of the given kind numbered for this compilation
+     */
+    public AST newTree(NodeKind kind, Symbol symbol) {
+        return number(kind.newTree(symbol));
+    }
+
+    /**
+     * give t the next node number of this compilation
+     *
+     * @return t
+     */
+    public <T extends AST> T number(T t) {
+        t.nodeNum = nextNumber();
+        return t;
+    }
+
+    /**
+     * @return the next node number of this compilation, for a node that is
+     *         not an AST object (e.g. a node of a FlatAst)
+     */
+    public int nextNumber() {
+        return ++nodeCount;
+    }
+
+    /**
+     * mark the numbers up to nodeCount as taken, e.g. by the nodes of a tree
+     * loaded from an AstFile
+     */
+    public void reserve(int nodeCount) {
+        this.nodeCount = Math.max(this.nodeCount, nodeCount);
+    }
+
+    /**
+     * @return the number of nodes numbered so far
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+}
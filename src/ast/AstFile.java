@@ -0,0 +1,214 @@
+package ast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import lexer.Symbol;
+import lexer.Tokens;
+
+/**
+ * AstFile writes a FlatAst to a compact binary file and loads it back; the
+ * file holds, in order<ol>
+ * <li>the magic number, the format VERSION and the node count,
+ * <li>the string table: each Symbol used by the tree as the ordinal of its
+ * token kind, then its lexeme as a length-prefixed UTF-8 string,
+ * <li>the node kinds, a byte per node, padded to a multiple of 4 bytes,
+ * <li>the first kids, next siblings, string table indexes, decorations and
+ * node numbers, an int per node each (NONE is -1)</ol>
+ * Symbols are written as string table indexes because Symbol ids are only
+ * meaningful inside one run of the compiler<br>
+ * load maps the file into memory and copies the node arrays out in bulk;
+ * only the string table is decoded entry by entry, and AST nodes are not
+ * made until FlatAst.view asks for them. A file whose links don't form a
+ * tree in preorder is rejected like any other corrupt file
+ */
+public class AstFile {
+
+    public static final int MAGIC = 0x58415354; // "XAST"
+    public static final int VERSION = 1;
+
+    private static final int NONE = FlatAst.NONE;
+
+    private AstFile() {
+    }
+
+    /**
+     * write the flattened form of t (see FlatAst.from) to file
+     */
+    public static void write(AST t, Path file) throws IOException {
+        write(FlatAst.from(t), file);
+    }
+
+    /**
+     * write the tree to file, replacing anything already there
+     */
+    public static void write(FlatAst tree, Path file) throws IOException {
+        int n = tree.size();
+        ArrayList<Symbol> strings = new ArrayList<>();
+        HashMap<Symbol, Integer> indexes = new HashMap<>();
+        int[] symbols = new int[n];
+        int stringBytes = 0;
+
+        for (int i = 0; i < n; i++) {
+            Symbol symbol = tree.symbol(i);
+            if (symbol == null) {
+                symbols[i] = NONE;
+                continue;
+            }
+            Integer index = indexes.get(symbol);
+            if (index == null) {
+                index = strings.size();
+                indexes.put(symbol, index);
+                strings.add(symbol);
+                stringBytes += 1 + 4 + symbol.toString().getBytes(StandardCharsets.UTF_8).length;
+            }
+            symbols[i] = index;
+        }
+
+        int kindBytes = (n + 3) & ~3;
+        ByteBuffer buffer = ByteBuffer.allocate(16 + stringBytes + kindBytes + 5 * 4 * n);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(strings.size());
+        for (Symbol symbol : strings) {
+            byte[] lexeme = symbol.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.put((byte) symbol.getKind().ordinal()).putInt(lexeme.length).put(lexeme);
+        }
+        for (int i = 0; i < kindBytes; i++) {
+            buffer.put(i < n ? (byte) tree.kind(i).ordinal() : 0);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(tree.firstKid(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(tree.nextSibling(i));
+        }
+        buffer.asIntBuffer().put(symbols);
+        buffer.position(buffer.position() + 4 * n);
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(tree.decoration(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(tree.nodeNum(i));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * load a tree written by write
+     *
+     * @exception IOException - thrown if the file can't be read or isn't an
+     *                        AST file of this VERSION
+     */
+    public static FlatAst load(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " is not an AST file of version " + VERSION);
+            }
+            int n = buffer.getInt();
+            int stringCount = buffer.getInt();
+            if (n < 1 || n > buffer.remaining()) {
+                throw new IOException(file + " is corrupt: it can't hold " + n + " nodes");
+            }
+
+            Tokens[] tokenKinds = Tokens.values();
+            int[] symbolIds = new int[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                Tokens kind = tokenKinds[buffer.get()];
+                byte[] lexeme = new byte[buffer.getInt()];
+                buffer.get(lexeme);
+                symbolIds[i] = Symbol.symbol(new String(lexeme, StandardCharsets.UTF_8), kind).getId();
+            }
+
+            int[] kinds = new int[n];
+            for (int i = 0; i < n; i++) {
+                kinds[i] = buffer.get();
+            }
+            buffer.position(buffer.position() + (((n + 3) & ~3) - n));
+
+            IntBuffer ints = buffer.asIntBuffer();
+            int[] firstKids = new int[n], nextSiblings = new int[n], symbols = new int[n],
+                    decorations = new int[n], nodeNums = new int[n];
+            ints.get(firstKids).get(nextSiblings).get(symbols).get(decorations).get(nodeNums);
+
+            int kindCount = NodeKind.values().length;
+            for (int i = 0; i < n; i++) {
+                if (kinds[i] < 0 || kinds[i] >= kindCount || !isNode(firstKids[i], n)
+                        || !isNode(nextSiblings[i], n) || !isNode(decorations[i], n)
+                        || symbols[i] < NONE || symbols[i] >= stringCount) {
+                    throw new IOException(file + " is corrupt at node " + i);
+                }
+                symbols[i] = symbols[i] == NONE ? NONE : symbolIds[symbols[i]];
+            }
+            int bad = checkLinks(firstKids, nextSiblings);
+            if (bad != NONE) {
+                throw new IOException(file + " is corrupt at node " + bad);
+            }
+
+            return new FlatAst(kinds, firstKids, nextSiblings, symbols, decorations, nodeNums);
+        } catch (RuntimeException e) {
+            // e.g. the file is truncated
+            throw new IOException(file + " is not a valid AST file", e);
+        }
+    }
+
+    /**
+     * check that the kid and sibling links form a tree laid out in preorder,
+     * as write leaves them: each node's first kid is the node after it, its
+     * next sibling comes after it, and each node but the root (which has no
+     * siblings) is reached by exactly one link. Every link points forward,
+     * so there are no cycles, and a node reached once is in one place only
+     *
+     * @return the first node breaking these rules, or NONE if there is none
+     */
+    private static int checkLinks(int[] firstKids, int[] nextSiblings) {
+        int n = firstKids.length;
+        boolean[] reached = new boolean[n];
+        if (nextSiblings[0] != NONE) {
+            return 0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int kid = firstKids[i], sibling = nextSiblings[i];
+            if (kid != NONE) {
+                if (kid != i + 1 || reached[kid]) {
+                    return i;
+                }
+                reached[kid] = true;
+            }
+            if (sibling != NONE) {
+                if (sibling <= i || reached[sibling]) {
+                    return i;
+                }
+                reached[sibling] = true;
+            }
+        }
+        for (int i = 1; i < n; i++) {
+            if (!reached[i]) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean isNode(int index, int size) {
+        return index >= NONE && index < size;
+    }
+}
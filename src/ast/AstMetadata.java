@@ -0,0 +1,191 @@
+package ast;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * The AstMetadata pass walks a tree once and records for each node<ul>
+ * <li>its preorder index (the root is 0),
+ * <li>the preorder index just past its subtree, so the subtree of a node is
+ * the index interval [preorder, subtreeEnd),
+ * <li>its depth (the number of levels in its subtree, see AST.depth) and
+ * <li>its level in the whole tree (see AST.getLevel)</ul>
+ * after which depth and level are array reads and isAncestor is an
+ * interval check<br>
+ * The values are kept here, not in the nodes, and describe the tree as it
+ * was when the pass ran; compute a new AstMetadata after changing the tree.
+ * A node that appears in several places (see HashConser) has a preorder
+ * index for each of them<br>
+ * The Parser computes one for the tree it built when asked for it (see
+ * Parser.getMetadata). AST.depth, AST.getLevel and AST.isAncestorOf
+ * don't use it: they walk the tree on each call
+ */
+public class AstMetadata {
+
+    private static final int[] NONE = new int[0];
+
+    private int nodeCount = 0;
+    // the preorder index of each node's first appearance, and of its later
+    // appearances for the nodes that have more than one
+    private final IdentityHashMap<AST, Integer> preorders = new IdentityHashMap<>();
+    private final IdentityHashMap<AST, int[]> repeats = new IdentityHashMap<>();
+    // by preorder index
+    private int[] subtreeEnds = new int[16], heights = new int[16], levels = new int[16];
+
+    private AstMetadata() {
+    }
+
+    /**
+     * record the metadata of every node in the tree at root
+     */
+    public static AstMetadata compute(AST root) {
+        AstMetadata pass = new AstMetadata();
+        pass.walk(root);
+        return pass;
+    }
+
+    /**
+     * @return the number of nodes in the tree, counting a node once for
+     *         each place it appears
+     */
+    public int size() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the preorder index of the first appearance of t, or -1 if t
+     *         isn't in the tree
+     */
+    public int preorder(AST t) {
+        Integer preorder = preorders.get(t);
+        return preorder == null ? -1 : preorder;
+    }
+
+    /**
+     * @return the preorder index just past the subtree at the first
+     *         appearance of t, or -1 if t isn't in the tree
+     */
+    public int subtreeEnd(AST t) {
+        int preorder = preorder(t);
+        return preorder < 0 ? -1 : subtreeEnds[preorder];
+    }
+
+    /**
+     * @return the number of levels in the subtree at t (1 for a leaf)
+     */
+    public int depth(AST t) {
+        return heights[index(t)];
+    }
+
+    /**
+     * @return the level of t in the tree (1 for the root)
+     * @exception IllegalArgumentException if t appears at several levels
+     */
+    public int level(AST t) {
+        int level = levels[index(t)];
+        for (int preorder : repeats.getOrDefault(t, NONE)) {
+            if (levels[preorder] != level) {
+                throw new IllegalArgumentException("node " + t.getNodeNum() + " appears at several levels");
+            }
+        }
+        return level;
+    }
+
+    /**
+     * @return true if some appearance of ancestor is a proper ancestor of
+     *         some appearance of t
+     */
+    public boolean isAncestor(AST ancestor, AST t) {
+        for (int a : appearances(ancestor)) {
+            for (int d : appearances(t)) {
+                if (a < d && d < subtreeEnds[a]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the preorder indexes of the places t appears
+     */
+    private int[] appearances(AST t) {
+        int[] later = repeats.getOrDefault(t, NONE);
+        int[] all = new int[later.length + 1];
+        all[0] = index(t);
+        System.arraycopy(later, 0, all, 1, later.length);
+        return all;
+    }
+
+    private int index(AST t) {
+        Integer preorder = preorders.get(t);
+        if (preorder == null) {
+            throw new IllegalArgumentException("node " + t.getNodeNum() + " is not in the tree");
+        }
+        return preorder;
+    }
+
+    /**
+     * visit the tree with an explicit stack so deep trees can't overflow the
+     * call stack; next[i] is the number of the next kid of nodes[i] to visit
+     * and indexes[i] its preorder index
+     */
+    private void walk(AST root) {
+        AST[] nodes = new AST[16];
+        int[] next = new int[16], indexes = new int[16];
+        int top = 0;
+
+        nodes[top] = root;
+        indexes[top] = start(root, root.getLevel());
+        next[top++] = 1;
+
+        while (top > 0) {
+            AST t = nodes[top - 1];
+            int index = indexes[top - 1];
+
+            if (next[top - 1] <= t.kidCount()) {
+                AST kid = t.getKid(next[top - 1]++);
+
+                if (top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, 2 * top);
+                    next = Arrays.copyOf(next, 2 * top);
+                    indexes = Arrays.copyOf(indexes, 2 * top);
+                }
+                nodes[top] = kid;
+                indexes[top] = start(kid, levels[index] + 1);
+                next[top++] = 1;
+                continue;
+            }
+
+            subtreeEnds[index] = nodeCount;
+            nodes[--top] = null;
+            if (top > 0) {
+                int parent = indexes[top - 1];
+                heights[parent] = Math.max(heights[parent], heights[index] + 1);
+            }
+        }
+    }
+
+    /**
+     * @return the preorder index given to this appearance of t
+     */
+    private int start(AST t, int level) {
+        int index = nodeCount++;
+        if (index == levels.length) {
+            subtreeEnds = Arrays.copyOf(subtreeEnds, 2 * index);
+            heights = Arrays.copyOf(heights, 2 * index);
+            levels = Arrays.copyOf(levels, 2 * index);
+        }
+        levels[index] = level;
+        heights[index] = 1;
+
+        Integer first = preorders.putIfAbsent(t, index);
+        if (first != null) {
+            int[] earlier = repeats.getOrDefault(t, NONE);
+            int[] all = Arrays.copyOf(earlier, earlier.length + 1);
+            all[earlier.length] = index;
+            repeats.put(t, all);
+        }
+        return index;
+    }
+}
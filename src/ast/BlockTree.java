@@ -10,7 +10,15 @@ public class BlockTree extends AST {
         return visitor.visitBlockTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitBlockTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitBlockTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitBlockTree(this);
     }
-}
\ No newline at end of file
+}
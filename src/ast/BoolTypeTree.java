@@ -10,6 +10,14 @@ public class BoolTypeTree extends AST {
         return visitor.visitBoolTypeTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitBoolTypeTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitBoolTypeTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitBoolTypeTree(this);
     }
@@ -10,6 +10,14 @@ public class CallTree extends AST {
         return visitor.visitCallTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitCallTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitCallTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitCallTree(this);
     }
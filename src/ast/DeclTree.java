@@ -10,6 +10,14 @@ public class DeclTree extends AST {
         return visitor.visitDeclTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitDeclTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitDeclTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitDeclTree(this);
     }
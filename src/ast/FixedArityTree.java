@@ -0,0 +1,113 @@
+package ast;
+
+import java.util.List;
+
+/**
+ *  A FixedArityTree is a node that never has more than 3 kids; it keeps
+ *  them in fields instead of a growable list, which saves the list objects
+ *  for the most common nodes of expression-heavy programs (operators,
+ *  assignments and if statements)<br>
+ *  getKid, kidCount and getKids work as for any other node
+ */
+public abstract class FixedArityTree extends AST {
+
+    private final int maxKids;
+    private int kidCount = 0;
+    private AST kid1, kid2, kid3;
+
+    /**
+     *  @param maxKids is the most kids the node can have (at most 3)
+     */
+    protected FixedArityTree(int maxKids) {
+        super(null);
+        this.maxKids = maxKids;
+    }
+
+    @Override
+    public AST getKid(int i) {
+        if (i > kidCount) {
+            return null;
+        }
+        switch (i) {
+            case 1:
+                return kid1;
+            case 2:
+                return kid2;
+            case 3:
+                return kid3;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public int kidCount() {
+        return kidCount;
+    }
+
+    /**
+     *  @return an unmodifiable list of the kids
+     */
+    @Override
+    public List<AST> getKids() {
+        switch (kidCount) {
+            case 0:
+                return List.of();
+            case 1:
+                return List.of(kid1);
+            case 2:
+                return List.of(kid1, kid2);
+            default:
+                return List.of(kid1, kid2, kid3);
+        }
+    }
+
+    @Override
+    public AST addKid(AST kid) {
+        switch (kidCount) {
+            case 0:
+                kid1 = kid;
+                break;
+            case 1:
+                kid2 = kid;
+                break;
+            case 2:
+                if (maxKids != 3) {
+                    throw tooManyKids();
+                }
+                kid3 = kid;
+                break;
+            default:
+                throw tooManyKids();
+        }
+        kidCount++;
+        kid.parentNode = this;
+        kidsChanged();
+        return this;
+    }
+
+    @Override
+    public AST replaceKid(int i, AST kid) {
+        AST old = getKid(i);
+        if (old == null) {
+            throw new IndexOutOfBoundsException("no kid " + i + " in node " + nodeNum);
+        }
+        switch (i) {
+            case 1:
+                kid1 = kid;
+                break;
+            case 2:
+                kid2 = kid;
+                break;
+            default:
+                kid3 = kid;
+                break;
+        }
+        adopt(old, kid);
+        return old;
+    }
+
+    private IllegalStateException tooManyKids() {
+        return new IllegalStateException(getClass().getSimpleName() + " can't have more than " + maxKids + " kids");
+    }
+}
@@ -0,0 +1,348 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import lexer.Symbol;
+import visitor.ASTVisitor;
+
+/**
+ * A FlatAst is a compact, read-only form of an AST: node n is the index n
+ * into parallel int arrays holding its kind (NodeKind ordinal), its first
+ * kid, its next sibling, the id of its Symbol, the index of its decoration
+ * and its node number; NONE marks a missing kid, sibling, symbol or
+ * decoration<br>
+ * Nodes are stored in preorder with the root at index 0, so a scan of the
+ * arrays visits the tree in the order PrintVisitor prints it<br>
+ * The accessors below read the arrays directly, so a pass that walks them
+ * (with firstKid and nextSibling) needs no AST nodes at all; view(n) makes
+ * an ordinary AST for the subtree at n when an ASTVisitor has to visit it.
+ * Labels and frame offsets belong to code generation and are not stored
+ */
+public class FlatAst {
+
+    public static final int NONE = -1;
+
+    private final int[] kinds;
+    private final int[] firstKids;
+    private final int[] nextSiblings;
+    private final int[] symbols;
+    private final int[] decorations;
+    private final int[] nodeNums;
+    private final int size;
+
+    FlatAst(int size) {
+        this(new int[size], new int[size], new int[size], new int[size], new int[size], new int[size]);
+    }
+
+    /**
+     * wrap arrays that are already filled in, in preorder (see AstFile)
+     */
+    FlatAst(int[] kinds, int[] firstKids, int[] nextSiblings, int[] symbols, int[] decorations,
+            int[] nodeNums) {
+        this.size = kinds.length;
+        this.kinds = kinds;
+        this.firstKids = firstKids;
+        this.nextSiblings = nextSiblings;
+        this.symbols = symbols;
+        this.decorations = decorations;
+        this.nodeNums = nodeNums;
+    }
+
+    /**
+     * Flatten an AST; decorations that point outside the tree (e.g. at the
+     * intrinsic trees) are not kept. A subtree shared by several parents
+     * (see HashConser) is stored once for each place it appears
+     *
+     * @param t is the root of the tree to flatten
+     */
+    public static FlatAst from(AST t) {
+        Builder builder = new Builder();
+        // the index of the first place each node appears
+        IdentityHashMap<AST, Integer> indexes = new IdentityHashMap<>();
+        ArrayList<AST> nodes = new ArrayList<>();
+        ArrayList<AST> pending = new ArrayList<>();
+        ArrayList<Integer> pendingParents = new ArrayList<>();
+        int[] lastKids = new int[0];
+
+        // the nodes are added in preorder; each is appended to the kids of
+        // the place its parent was added at
+        pending.add(t);
+        pendingParents.add(NONE);
+        while (!pending.isEmpty()) {
+            AST node = pending.remove(pending.size() - 1);
+            int parent = pendingParents.remove(pendingParents.size() - 1);
+            int n = builder.add(NodeKind.of(node), NodeKind.symbolOf(node), node.getNodeNum());
+            indexes.putIfAbsent(node, n);
+            nodes.add(node);
+
+            if (lastKids.length == n) {
+                lastKids = Arrays.copyOf(lastKids, 2 * n + 1);
+            }
+            lastKids[n] = NONE;
+            if (parent != NONE) {
+                if (lastKids[parent] == NONE) {
+                    builder.firstKids[parent] = n;
+                } else {
+                    builder.nextSiblings[lastKids[parent]] = n;
+                }
+                lastKids[parent] = n;
+            }
+
+            for (int i = node.kidCount(); i >= 1; i--) {
+                pending.add(node.getKid(i));
+                pendingParents.add(n);
+            }
+        }
+
+        for (int n = 0; n < nodes.size(); n++) {
+            AST decoration = nodes.get(n).getDecoration();
+            Integer index = decoration == null ? null : indexes.get(decoration);
+            if (index != null) {
+                builder.decorate(n, index);
+            }
+        }
+        return builder.build(0);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int n) {
+        return NodeKind.of(kinds[n]);
+    }
+
+    /**
+     * @return the index of the first kid of n, or NONE
+     */
+    public int firstKid(int n) {
+        return firstKids[n];
+    }
+
+    /**
+     * @return the index of the next kid of n's parent, or NONE
+     */
+    public int nextSibling(int n) {
+        return nextSiblings[n];
+    }
+
+    public int kidCount(int n) {
+        int count = 0;
+        for (int kid = firstKids[n]; kid != NONE; kid = nextSiblings[kid]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the id of n's Symbol (see Symbol.byId), or NONE
+     */
+    public int symbolId(int n) {
+        return symbols[n];
+    }
+
+    /**
+     * @return n's Symbol, or null if its kind carries none
+     */
+    public Symbol symbol(int n) {
+        return symbols[n] == NONE ? null : Symbol.byId(symbols[n]);
+    }
+
+    /**
+     * @return the index of n's decoration, or NONE
+     */
+    public int decoration(int n) {
+        return decorations[n];
+    }
+
+    public int nodeNum(int n) {
+        return nodeNums[n];
+    }
+
+    /**
+     * @return the largest node number in the tree
+     */
+    public int maxNodeNum() {
+        int max = 0;
+        for (int n = 0; n < size; n++) {
+            max = Math.max(max, nodeNums[n]);
+        }
+        return max;
+    }
+
+    /**
+     * @return the index just past the subtree at n, so the subtree is the
+     *         index interval [n, subtreeEnd(n))
+     */
+    public int subtreeEnd(int n) {
+        // the last node of a subtree in preorder is reached by following
+        // last kids down to a leaf
+        int last = n;
+        while (firstKids[last] != NONE) {
+            last = firstKids[last];
+            while (nextSiblings[last] != NONE) {
+                last = nextSiblings[last];
+            }
+        }
+        return last + 1;
+    }
+
+    /**
+     * @return a new AST for the subtree at n; decorations pointing outside
+     *         the subtree are not set. The nodes are made in one pass over
+     *         the subtree's interval, without recursion, and not kept, so
+     *         they can be collected once the caller is done with them
+     */
+    public AST view(int n) {
+        int end = subtreeEnd(n);
+        AST[] nodes = new AST[end - n];
+        for (int i = n; i < end; i++) {
+            AST t = kind(i).newTree(symbol(i));
+            t.nodeNum = nodeNums[i];
+            nodes[i - n] = t;
+        }
+        for (int i = n; i < end; i++) {
+            AST t = nodes[i - n];
+            for (int kid = firstKids[i]; kid != NONE; kid = nextSiblings[kid]) {
+                t.addKid(nodes[kid - n]);
+            }
+            if (decorations[i] >= n && decorations[i] < end) {
+                t.setDecoration(nodes[decorations[i] - n]);
+            }
+        }
+        return nodes[0];
+    }
+
+    /**
+     * @return the AST for the whole tree
+     */
+    public AST getTree() {
+        return view(0);
+    }
+
+    /**
+     * let v visit the whole tree; the AST it visits is made for the visit
+     * (see view) and dropped afterwards
+     */
+    public Object accept(ASTVisitor v) {
+        return getTree().accept(v);
+    }
+
+    /**
+     * A Builder collects nodes in any order, e.g. in the order a parser
+     * finishes them, and then lays them out in preorder
+     */
+    public static class Builder {
+        private int[] kinds = new int[64];
+        private int[] firstKids = new int[64];
+        private int[] nextSiblings = new int[64];
+        private int[] symbols = new int[64];
+        private int[] decorations = new int[64];
+        private int[] nodeNums = new int[64];
+        private int size = 0;
+
+        /**
+         * @param symbol is the node's Symbol, or null
+         * @return the index of the new node; it has no kids yet
+         */
+        public int add(NodeKind kind, Symbol symbol, int nodeNum) {
+            if (size == kinds.length) {
+                int length = 2 * size;
+                kinds = Arrays.copyOf(kinds, length);
+                firstKids = Arrays.copyOf(firstKids, length);
+                nextSiblings = Arrays.copyOf(nextSiblings, length);
+                symbols = Arrays.copyOf(symbols, length);
+                decorations = Arrays.copyOf(decorations, length);
+                nodeNums = Arrays.copyOf(nodeNums, length);
+            }
+            kinds[size] = kind.ordinal();
+            firstKids[size] = NONE;
+            nextSiblings[size] = NONE;
+            symbols[size] = symbol == null ? NONE : symbol.getId();
+            decorations[size] = NONE;
+            nodeNums[size] = nodeNum;
+            return size++;
+        }
+
+        /**
+         * make kids[0] ... kids[count - 1] the kids of parent, in order
+         */
+        public void setKids(int parent, int[] kids, int count) {
+            setKids(parent, kids, 0, count);
+        }
+
+        /**
+         * make kids[from] ... kids[to - 1] the kids of parent, in order
+         */
+        public void setKids(int parent, int[] kids, int from, int to) {
+            firstKids[parent] = from < to ? kids[from] : NONE;
+            for (int i = from; i < to; i++) {
+                nextSiblings[kids[i]] = i + 1 < to ? kids[i + 1] : NONE;
+            }
+        }
+
+        public NodeKind kind(int n) {
+            return NodeKind.of(kinds[n]);
+        }
+
+        public void decorate(int n, int decoration) {
+            decorations[n] = decoration;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the tree at root in preorder; nodes that aren't in it are
+         *         dropped along with decorations pointing at them
+         */
+        public FlatAst build(int root) {
+            int[] order = new int[size];
+            int[] index = new int[size];
+            int count = 0;
+            Arrays.fill(index, NONE);
+
+            // preorder with an explicit stack; a node's kids are pushed last
+            // to first so the first kid is numbered next
+            int[] stack = new int[size];
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int n = stack[--top];
+                index[n] = count;
+                order[count++] = n;
+
+                int kids = top;
+                for (int kid = firstKids[n]; kid != NONE; kid = nextSiblings[kid]) {
+                    stack[top++] = kid;
+                }
+                for (int i = kids, j = top - 1; i < j; i++, j--) {
+                    int kid = stack[i];
+                    stack[i] = stack[j];
+                    stack[j] = kid;
+                }
+            }
+
+            FlatAst flat = new FlatAst(count);
+            for (int i = 0; i < count; i++) {
+                int n = order[i];
+                flat.kinds[i] = kinds[n];
+                flat.firstKids[i] = firstKids[n] == NONE ? NONE : index[firstKids[n]];
+                flat.nextSiblings[i] = nextSiblings[n] == NONE ? NONE : index[nextSiblings[n]];
+                flat.symbols[i] = symbols[n];
+                flat.decorations[i] = decorations[n] == NONE ? NONE : index[decorations[n]];
+                flat.nodeNums[i] = nodeNums[n];
+            }
+            // the root's siblings are not part of the tree
+            if (count > 0) {
+                flat.nextSiblings[0] = NONE;
+            }
+            return flat;
+        }
+    }
+}
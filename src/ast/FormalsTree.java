@@ -10,6 +10,14 @@ public class FormalsTree extends AST {
         return visitor.visitFormalsTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitFormalsTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitFormalsTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitFormalsTree(this);
     }
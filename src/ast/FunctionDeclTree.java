@@ -10,6 +10,14 @@ public class FunctionDeclTree extends AST {
         return visitor.visitFunctionDeclTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitFunctionDeclTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitFunctionDeclTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitFunctionDeclTree(this);
     }
@@ -0,0 +1,96 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A HashConser makes structurally equal expression subtrees share one set
+ * of nodes: intern returns the first subtree seen with the same structure
+ * (see AST.structuralHash) in place of a new one; a node's hash is worked
+ * out from its kids', which are kept in them, so each intern hashes only
+ * the node given<br>
+ * Only literals and operator trees built entirely from literals are
+ * shared; anything containing an identifier is left alone since the
+ * Constrainer decorates each use of an identifier with its own declaration<br>
+ * A shared node has several parents, but its node number belongs to the
+ * first place it appeared and its parent link to the last place it was
+ * added, since AST.addKid sets the link each time (an AstMetadata records
+ * each place)
+ */
+public class HashConser {
+
+    // the shared subtrees by structural hash
+    private final HashMap<Integer, ArrayList<AST>> shared = new HashMap<>();
+    private final Set<AST> canonical = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int reused = 0;
+
+    /**
+     * t's kids must already have been interned
+     *
+     * @return the shared subtree structurally equal to t, or t itself if
+     *         there is none yet or t can't be shared
+     */
+    public AST intern(AST t) {
+        if (!isShareable(t)) {
+            return t;
+        }
+
+        ArrayList<AST> bucket = shared.computeIfAbsent(t.structuralHash(), hash -> new ArrayList<>());
+        for (AST other : bucket) {
+            if (sameNode(other, t)) {
+                reused++;
+                return other;
+            }
+        }
+        bucket.add(t);
+        canonical.add(t);
+        return t;
+    }
+
+    /**
+     * @return the number of subtrees replaced by a shared one
+     */
+    public int getReused() {
+        return reused;
+    }
+
+    private boolean isShareable(AST t) {
+        switch (NodeKind.of(t)) {
+            case IntLit:
+            case StringLit:
+            case HexLit:
+                return true;
+            case RelOp:
+            case AddOp:
+            case MultOp:
+                for (int i = 1; i <= t.kidCount(); i++) {
+                    if (!canonical.contains(t.getKid(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * the kids of both trees are shared ones, so comparing them by identity
+     * compares the whole subtrees
+     */
+    private static boolean sameNode(AST a, AST b) {
+        if (a.getClass() != b.getClass() || NodeKind.symbolOf(a) != NodeKind.symbolOf(b)
+                || a.kidCount() != b.kidCount()) {
+            return false;
+        }
+        for (int i = 1; i <= a.kidCount(); i++) {
+            if (a.getKid(i) != b.getKid(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -15,13 +15,25 @@ public class HexTree extends AST {
      *              representations
      */
     public HexTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public HexTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitHexTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitHexTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitHexTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitHexTree(this);
     }
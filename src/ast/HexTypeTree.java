@@ -1,6 +1,8 @@
 package ast;
 
 import visitor.ASTVisitor;
+import visitor.GenericVisitor;
+import visitor.IntVisitor;
 import visitor.OffsetVisitor;
 
 public class HexTypeTree extends AST {
@@ -10,6 +12,14 @@ public class HexTypeTree extends AST {
         return visitor.visitHexTypeTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitHexTypeTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitHexTypeTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitHexTypeTree(this);
     }
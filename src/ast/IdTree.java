@@ -7,20 +7,32 @@ import visitor.*;
 public class IdTree extends AST {
 
     private Symbol symbol;
-    // stack location for codegen
-    private int frameOffset = -1;
+    // lexical address of the variable, resolved by the constrainer
+    private int functionLevel = -1, slot = -1;
 
     /**
      *  @param token - record the symbol from the token Symbol
      */
     public IdTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public IdTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitIdTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitIdTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitIdTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitIdTree(this);
     }
@@ -30,16 +42,29 @@ public class IdTree extends AST {
     }
 
     /**
-     *  @param offset is the offset for this variable as determined by the code generator
+     *  @param functionLevel is the nesting level of the function declaring
+     *  the variable (0 for the main program)
+     *  @param slot is the variable's offset in that function's frame
+     */
+    public void setAddress(int functionLevel, int slot) {
+        this.functionLevel = functionLevel;
+        this.slot = slot;
+    }
+
+    /**
+     *  @return the nesting level of the function declaring this variable,
+     *  or -1 if the constrainer hasn't resolved it
      */
-    public void setFrameOffset(int offset) {
-        frameOffset = offset;
+    public int getFunctionLevel() {
+        return functionLevel;
     }
 
     /**
-     *  @return the frame offset for this variable - used by codegen
+     *  @return the frame offset of this variable as resolved by the
+     *  constrainer at its declaration, or -1 if it hasn't been resolved;
+     *  the code generator loads and stores the variable there
      */
-    public int getFrameOffset() {
-        return frameOffset;
+    public int getSlot() {
+        return slot;
     }
 }
\ No newline at end of file
@@ -2,14 +2,25 @@ package ast;
 
 import visitor.*;
 
-public class IfTree extends AST {
+public class IfTree extends FixedArityTree {
 
-    public IfTree() {}
+    // condition, then block and optional else block (or else-if statement)
+    public IfTree() {
+        super(3);
+    }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitIfTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitIfTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitIfTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitIfTree(this);
     }
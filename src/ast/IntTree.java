@@ -15,13 +15,25 @@ public class IntTree extends AST {
      *  representations
      */
     public IntTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public IntTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitIntTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitIntTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitIntTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitIntTree(this);
     }
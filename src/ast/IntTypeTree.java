@@ -10,6 +10,14 @@ public class IntTypeTree extends AST {
         return visitor.visitIntTypeTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitIntTypeTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitIntTypeTree(this, context);
+    }
+
     public Object accept(OffsetVisitor v) {
         return v.visitIntTypeTree(this);
     }
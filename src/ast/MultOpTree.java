@@ -4,7 +4,7 @@ import lexer.Symbol;
 import lexer.Token;
 import visitor.*;
 
-public class MultOpTree extends AST {
+public class MultOpTree extends FixedArityTree {
 
     private Symbol symbol;
 
@@ -12,12 +12,25 @@ public class MultOpTree extends AST {
      *  @param token contains the Symbol that indicates the specific multiplying operator
      */
     public MultOpTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public MultOpTree(Symbol symbol) {
+        super(2);
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitMultOpTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitMultOpTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitMultOpTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitMultOpTree(this);
     }
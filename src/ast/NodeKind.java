@@ -0,0 +1,121 @@
+package ast;
+
+import java.util.HashMap;
+import java.util.function.Function;
+import lexer.Symbol;
+
+/**
+ * NodeKind names each class of AST node so a node's class can be stored as
+ * an int (its ordinal), e.g. in a FlatAst<br>
+ * Each kind can create a new node of its class; the kinds whose nodes carry
+ * a Symbol (identifiers, literals and operators) are given it
+ */
+public enum NodeKind {
+    Program(ProgramTree.class, s -> new ProgramTree()),
+    Block(BlockTree.class, s -> new BlockTree()),
+    FunctionDecl(FunctionDeclTree.class, s -> new FunctionDeclTree()),
+    Call(CallTree.class, s -> new CallTree()),
+    Decl(DeclTree.class, s -> new DeclTree()),
+    IntType(IntTypeTree.class, s -> new IntTypeTree()),
+    StringType(StringTypeTree.class, s -> new StringTypeTree()),
+    HexType(HexTypeTree.class, s -> new HexTypeTree()),
+    BoolType(BoolTypeTree.class, s -> new BoolTypeTree()),
+    Formals(FormalsTree.class, s -> new FormalsTree()),
+    ActualArgs(ActualArgsTree.class, s -> new ActualArgsTree()),
+    If(IfTree.class, s -> new IfTree()),
+    While(WhileTree.class, s -> new WhileTree()),
+    Return(ReturnTree.class, s -> new ReturnTree()),
+    Assign(AssignTree.class, s -> new AssignTree()),
+    IntLit(IntTree.class, IntTree::new),
+    StringLit(StringTree.class, StringTree::new),
+    HexLit(HexTree.class, HexTree::new),
+    Id(IdTree.class, IdTree::new),
+    RelOp(RelOpTree.class, RelOpTree::new),
+    AddOp(AddOpTree.class, AddOpTree::new),
+    MultOp(MultOpTree.class, MultOpTree::new),
+    Unless(UnlessTree.class, s -> new UnlessTree()),
+    Select(SelectTree.class, s -> new SelectTree()),
+    SelectBlock(SelectBlockTree.class, s -> new SelectBlockTree()),
+    Selector(SelectorTree.class, s -> new SelectorTree());
+
+    private static final HashMap<Class<?>, NodeKind> kinds = new HashMap<>();
+    private static final NodeKind[] values = values();
+
+    static {
+        for (NodeKind kind : values) {
+            kinds.put(kind.nodeClass, kind);
+        }
+    }
+
+    private final Class<? extends AST> nodeClass;
+    private final Function<Symbol, AST> factory;
+
+    NodeKind(Class<? extends AST> nodeClass, Function<Symbol, AST> factory) {
+        this.nodeClass = nodeClass;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the kind of node t
+     */
+    public static NodeKind of(AST t) {
+        return kinds.get(t.getClass());
+    }
+
+    /**
+     * @return the kind with the given ordinal
+     */
+    public static NodeKind of(int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * @return true if nodes of this kind carry a Symbol
+     */
+    public boolean hasSymbol() {
+        switch (this) {
+            case IntLit:
+            case StringLit:
+            case HexLit:
+            case Id:
+            case RelOp:
+            case AddOp:
+            case MultOp:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the Symbol carried by t, or null if its kind carries none
+     */
+    public static Symbol symbolOf(AST t) {
+        switch (of(t)) {
+            case IntLit:
+                return ((IntTree) t).getSymbol();
+            case StringLit:
+                return ((StringTree) t).getSymbol();
+            case HexLit:
+                return ((HexTree) t).getSymbol();
+            case Id:
+                return ((IdTree) t).getSymbol();
+            case RelOp:
+                return ((RelOpTree) t).getSymbol();
+            case AddOp:
+                return ((AddOpTree) t).getSymbol();
+            case MultOp:
+                return ((MultOpTree) t).getSymbol();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param symbol is the Symbol for kinds that carry one; ignored otherwise
+     * @return a new node of this kind with no kids
+     */
+    public AST newTree(Symbol symbol) {
+        return factory.apply(symbol);
+    }
+}
@@ -9,6 +9,14 @@ public class ProgramTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitProgramTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitProgramTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitProgramTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitProgramTree(this);
     }
@@ -4,7 +4,7 @@ import lexer.Symbol;
 import lexer.Token;
 import visitor.*;
 
-public class RelOpTree extends AST {
+public class RelOpTree extends FixedArityTree {
 
     private Symbol symbol;
 
@@ -12,12 +12,25 @@ public class RelOpTree extends AST {
      *  @param token contains the Symbol which indicates the specific relational operator
      */
     public RelOpTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public RelOpTree(Symbol symbol) {
+        super(2);
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitRelOpTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitRelOpTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitRelOpTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitRelOpTree(this);
     }
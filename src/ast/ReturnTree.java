@@ -9,6 +9,14 @@ public class ReturnTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitReturnTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitReturnTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitReturnTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitReturnTree(this);
     }
@@ -9,6 +9,14 @@ public class SelectBlockTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitSelectBlockTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitSelectBlockTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitSelectBlockTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitSelectBlockTree(this);
     }
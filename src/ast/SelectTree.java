@@ -9,6 +9,14 @@ public class SelectTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitSelectTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitSelectTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitSelectTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitSelectTree(this);
     }
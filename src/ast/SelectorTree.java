@@ -9,6 +9,14 @@ public class SelectorTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitSelectorTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitSelectorTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitSelectorTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitSelectorTree(this);
     }
@@ -15,12 +15,24 @@ public class StringTree extends AST {
      *              representations
      */
     public StringTree(Token token) {
-        this.symbol = token.getSymbol();
+        this(token.getSymbol());
+    }
+
+    public StringTree(Symbol symbol) {
+        this.symbol = symbol;
     }
 
     public Object accept(ASTVisitor visitor) {
         return visitor.visitStringTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitStringTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitStringTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitStringTree(this);
     }
@@ -1,6 +1,8 @@
 package ast;
 
 import visitor.ASTVisitor;
+import visitor.GenericVisitor;
+import visitor.IntVisitor;
 import visitor.OffsetVisitor;
 
 public class StringTypeTree extends AST {
@@ -10,6 +12,14 @@ public class StringTypeTree extends AST {
         return visitor.visitStringTypeTree(this);
     }
 
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitStringTypeTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitStringTypeTree(this, context);
+    }
+
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitStringTypeTree(this);
     }
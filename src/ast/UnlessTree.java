@@ -10,6 +10,14 @@ public class UnlessTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitUnlessTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitUnlessTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitUnlessTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitUnlessTree(this);
     }
@@ -9,6 +9,14 @@ public class WhileTree extends AST {
     public Object accept(ASTVisitor visitor) {
         return visitor.visitWhileTree(this);
     }
+
+    public <R, C> R accept(GenericVisitor<R, C> visitor, C context) {
+        return visitor.visitWhileTree(this, context);
+    }
+
+    public <C> int accept(IntVisitor<C> visitor, C context) {
+        return visitor.visitWhileTree(this, context);
+    }
     public Object accept(OffsetVisitor visitor) {
         return visitor.visitWhileTree(this);
     }
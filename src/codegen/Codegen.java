@@ -12,6 +12,8 @@ import visitor.*;
 public class Codegen extends ASTVisitor {
 
     AST t;
+    // the intrinsic trees the program was constrained against
+    Prelude prelude;
     /**
      * used for tracking the frame sizes;
      * when we start generating code for a
@@ -31,7 +33,12 @@ public class Codegen extends ASTVisitor {
      * @param t is the AST that will be visited
      */
     public Codegen(AST t) {
+        this(t, Prelude.get());
+    }
+
+    public Codegen(AST t, Prelude prelude) {
         this.t = t;
+        this.prelude = prelude;
         program = new Program();
         frameSizes = new Stack<Frame>();
         labelNum = 0;
@@ -151,16 +158,13 @@ public class Codegen extends ASTVisitor {
      * as any other function
      */
     void genIntrinsicCodes() {
-        String readLabel = "Read", writeLabel = "Write";
-        AST readTree = Constrainer.readTree, writeTree = Constrainer.writeTree;
+        AST writeTree = prelude.writeTree;
 
-        readTree.setLabel(readLabel);
-        storeop(new LabelOpcode(Codes.ByteCodes.LABEL, readLabel));
+        storeop(new LabelOpcode(Codes.ByteCodes.LABEL, prelude.readTree.getLabel()));
         storeop(new Code(Codes.ByteCodes.READ));
         storeop(new Code(Codes.ByteCodes.RETURN));
 
-        writeTree.setLabel(writeLabel);
-        storeop(new LabelOpcode(Codes.ByteCodes.LABEL, writeLabel));
+        storeop(new LabelOpcode(Codes.ByteCodes.LABEL, writeTree.getLabel()));
         String formal = ((IdTree) (writeTree.getKid(3).getKid(1).getKid(2))).getSymbol()
                 .toString();
         storeop(new VarOpcode(Codes.ByteCodes.LOAD, 0, formal));
@@ -221,8 +225,8 @@ public class Codegen extends ASTVisitor {
     }
 
     /**
-     * Generate codes for the function declaration; we'll also record
-     * the frame offsets for the formal parameters
+     * Generate codes for the function declaration; the formal parameters
+     * take the first frame offsets
      *
      * GOTO continue -- branch around codes for the function
      * LABEL functionLabel
@@ -248,10 +252,10 @@ public class Codegen extends ASTVisitor {
         openFrame();
         storeop(new LabelOpcode(Codes.ByteCodes.LABEL, funcLabel));
 
-        // now record the frame offsets for the formals
+        // the formals take the first frame offsets
         for (AST decl : formals.getKids()) {
             IdTree id = (IdTree) (decl.getKid(2));
-            id.setFrameOffset(frameSize());
+            checkSlot(id);
             decl.setLabel(id.getSymbol().toString());
 
             // ensure frame size includes space for variables
@@ -294,12 +298,24 @@ public class Codegen extends ASTVisitor {
         return null;
     }
 
+    /**
+     * the frame offsets of variables are given out by the constrainer (see
+     * IdTree.getSlot); check that the variable declared by id goes where
+     * the frame being built puts it
+     */
+    private void checkSlot(IdTree id) {
+        if (id.getSlot() != frameSize()) {
+            throw new IllegalStateException("variable " + id.getSymbol() + " (node " + id.getNodeNum()
+                    + ") was given frame offset " + id.getSlot() + " but is at " + frameSize());
+        }
+    }
+
     /**
      * Generate codes for the Decl tree:
      *
      * LIT 0 -- 0 is the initial value for the variable
      *
-     * record the frame offset of this variable for future references
+     * the variable is at the frame offset the constrainer gave it
      */
     @Override
     public Object visitDeclTree(AST t) {
@@ -311,7 +327,7 @@ public class Codegen extends ASTVisitor {
         t.setLabel(idLabel);
 
         // reserve space in frame for new variable; init to 0
-        id.setFrameOffset(frameSize());
+        checkSlot(id);
         storeop(new VarOpcode(Codes.ByteCodes.LIT, 0, idLabel));
 
         return null;
@@ -481,7 +497,7 @@ public class Codegen extends ASTVisitor {
         // System.out.println("visitAssignTree");
         IdTree id = (IdTree) t.getKid(1);
         String vname = id.getSymbol().toString();
-        int addr = ((IdTree) (id.getDecoration().getKid(2))).getFrameOffset();
+        int addr = id.getSlot();
 
         t.getKid(2).accept(this);
 
@@ -516,13 +532,12 @@ public class Codegen extends ASTVisitor {
 
     /**
      * Load a variable:
-     * LOAD offset -- load variable using the offset recorded in the AST
+     * LOAD offset -- load variable using the offset the constrainer resolved
      */
     @Override
     public Object visitIdTree(AST t) {
         // System.out.println("visitIdTree");
-        AST decl = t.getDecoration();
-        int addr = ((IdTree) (decl.getKid(2))).getFrameOffset();
+        int addr = ((IdTree) t).getSlot();
         String vname = ((IdTree) t).getSymbol().toString();
 
         storeop(new VarOpcode(Codes.ByteCodes.LOAD, addr, vname));
@@ -2,7 +2,10 @@ package compiler;
 
 import ast.*;
 import codegen.*;
+import constrain.ConstrainResult;
 import constrain.Constrainer;
+import constrain.Diagnostic;
+import constrain.Prelude;
 import java.awt.Dimension;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -33,28 +36,35 @@ public class Compiler {
 
             System.out.println("---------------AST-------------");
             PrintVisitor pv = new PrintVisitor();
-            t.accept(pv);
+            TreeWalker.walk(t, pv);
             /* COMMENT CODE FROM HERE UNTIL THE CATCH CLAUSE WHEN TESTING PARSER */
-            Constrainer con = new Constrainer(t, parser);
-            con.execute();
+            Prelude prelude = Prelude.get();
+            Constrainer con = new Constrainer(t, prelude);
+            ConstrainResult result = con.execute();
             System.out.println("---------------DECORATED AST-------------");
-            t.accept(pv);
+            TreeWalker.walk(t, pv);
+            if (result.hasErrors()) {
+                for (Diagnostic d : result.getDiagnostics()) {
+                    System.out.println("****CONSTRAINER ERROR: " + d + "   ****");
+                }
+                return;
+            }
 
             /* COMMENT CODE FROM HERE UNTIL THE CATCH CLAUSE WHEN TESTING CONSTRAINER */
-            Codegen generator = new Codegen(t);
+            Codegen generator = new Codegen(t, prelude);
             Program program = generator.execute();
 
             System.out.println("---------------AST AFTER CODEGEN-------------");
-            t.accept(pv);
+            TreeWalker.walk(t, pv);
 
             System.out.println("---------------INTRINSIC TREES-------------");
             System.out.println("---------------READ/WRITE TREES-------------");
-            Constrainer.readTree.accept(pv);
-            Constrainer.writeTree.accept(pv);
+            TreeWalker.walk(prelude.readTree, pv);
+            TreeWalker.walk(prelude.writeTree, pv);
 
             System.out.println("---------------INT/BOOL TREES-------------");
-            Constrainer.intTree.accept(pv);
-            Constrainer.boolTree.accept(pv);
+            TreeWalker.walk(prelude.intTree, pv);
+            TreeWalker.walk(prelude.boolTree, pv);
 
             // if the source file is "abc" print bytecodes to abc.cod
             program.printCodes(sourceFile + ".cod");
@@ -73,10 +83,8 @@ public class Compiler {
 
             System.out.println("---------------AST-------------");
             PrintVisitor printVisitor = new PrintVisitor();
-            ast.accept(printVisitor);
-
             CountVisitor countVisitor = new CountVisitor();
-            ast.accept(countVisitor);
+            TreeWalker.walk(ast, new FusedVisitor(printVisitor, countVisitor));
 
             DrawOffsetVisitor drawVisitor = new DrawOffsetVisitor(countVisitor.getCount());
             ast.accept(drawVisitor);
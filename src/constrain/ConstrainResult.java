@@ -0,0 +1,48 @@
+package constrain;
+
+import ast.AST;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of constraining a program: the decorated tree and the errors
+ * found in it, in the order a sequential visit meets them; the tree can only
+ * be given to the code generator if there are none. If the Constrainer was
+ * asked to (see Constrainer.indexUses) the result also has the program's
+ * DefUseIndex
+ */
+public class ConstrainResult {
+
+    private final AST tree;
+    private final List<Diagnostic> diagnostics;
+    private final DefUseIndex index;
+
+    public ConstrainResult(AST tree, List<Diagnostic> diagnostics) {
+        this(tree, diagnostics, null);
+    }
+
+    public ConstrainResult(AST tree, List<Diagnostic> diagnostics, DefUseIndex index) {
+        this.tree = tree;
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+        this.index = index;
+    }
+
+    public AST getTree() {
+        return tree;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return the program's def-use index, or null if it wasn't asked for
+     */
+    public DefUseIndex getIndex() {
+        return index;
+    }
+
+    public boolean hasErrors() {
+        return !diagnostics.isEmpty();
+    }
+}
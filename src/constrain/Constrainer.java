@@ -4,7 +4,10 @@ import lexer.*;
 import parser.Parser;
 import visitor.*;
 import ast.*;
+import java.io.Serial;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Constrainer object will visit the AST, gather/check variable
@@ -20,12 +23,13 @@ import java.util.*;
 public class Constrainer extends ASTVisitor {
     public enum ConstrainerErrors {
         BadAssignmentType, CallingNonFunction, ActualFormalTypeMismatch, NumberActualsFormalsDiffer, TypeMismatchInExpr,
-        BooleanExprExpected, BadConditional, ReturnNotInFunction, BadReturnExpr
+        BooleanExprExpected, BadConditional, ReturnNotInFunction, BadReturnExpr, UndeclaredIdentifier
     }
 
     private AST t; // the AST to constrain
-    private Table symtab = new Table();
-    private Parser parser; // parser used with this constrainer
+    private SymbolTable symtab = new SymbolTable();
+    // the errors found so far
+    private ArrayList<Diagnostic> diagnostics = new ArrayList<>();
 
     /**
      * The following comment refers to the functions stack
@@ -42,30 +46,349 @@ public class Constrainer extends ASTVisitor {
     private Stack<AST> functions = new Stack<AST>();
 
     /**
-     * readTree, writeTree, intTree, boolTree,falseTree, trueTree
-     * are AST's that will be constructed (intrinsic trees) for
-     * every program. They are constructed in the same fashion as
-     * source program trees to ensure consisten processing of
-     * functions, etc.
+     * the frame offset the next declared variable will have in the current
+     * function (or main program); a frame holds the formals and then the
+     * variables of each open block, in order, so the offsets given out here
+     * are the ones the code generator's Frame will find
      */
-    public static AST readTree, writeTree, intTree, boolTree,
-            falseTree, trueTree, readId, writeId;
+    private int nextSlot = 0;
 
+    /**
+     * set while constraining in parallel (see executeParallel): the
+     * function bodies put off by the signature pass and the errors, in the
+     * order a sequential run would meet them
+     */
+    private ArrayList<Object> pending = null;
+    // true for the signature pass, which puts off function bodies
+    private boolean deferBodies = false;
+
+    /**
+     * kept by executeParallel for recheck: the items of the signature pass
+     * (the Bodies and errors outside function bodies, in order), the Body
+     * that checks each function, the Bodies that refer to each function
+     * and the functions the signature pass refers to
+     */
+    private ArrayList<Object> skeleton = null;
+    private IdentityHashMap<AST, Body> units = null;
+    private IdentityHashMap<AST, Set<Body>> callers = null;
+    private Set<AST> skeletonUses = null;
+
+    // while checking a unit (or the signature pass): the functions looked
+    // up and the functions declared inside the unit's body
+    private Set<AST> uses = null;
+    private ArrayList<AST> nested = null;
+
+    // true if the result is to have a DefUseIndex; the uses found by this
+    // Constrainer are collected in defUse
+    private boolean indexUses = false;
+    private DefUseIndex.Builder defUse = null;
+
+    // the intrinsic trees programs are constrained against
+    private final Prelude prelude;
+    // the function types of this compilation, shared with the Constrainers
+    // of the Bodies
+    private Type.Functions functionTypes = new Type.Functions();
+    // the declarations visible at the end of each block, shared with the
+    // Constrainers of the Bodies
+    private Map<AST, Scope> scopes = Collections.synchronizedMap(new IdentityHashMap<>());
+    // the signature of each function declared, shared likewise
+    private Map<AST, Type> signatures = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * constrain t against the shared Prelude (see Prelude.get)
+     */
+    public Constrainer(AST t) {
+        this(t, Prelude.get());
+    }
+
+    /**
+     * @deprecated the parser that built t isn't needed; use Constrainer(AST)
+     */
+    @Deprecated
     public Constrainer(AST t, Parser parser) {
+        this(t);
+    }
+
+    public Constrainer(AST t, Prelude prelude) {
         this.t = t;
-        this.parser = parser;
+        this.prelude = prelude;
+    }
+
+    /**
+     * Constrain the program; an error doesn't stop the checking, so the
+     * result holds every error found
+     */
+    public ConstrainResult execute() {
+        defUse = indexUses ? new DefUseIndex.Builder() : null;
+        openProgramScope();
+        t.accept(this);
+        return new ConstrainResult(t, diagnostics, defUse == null ? null : DefUseIndex.Builder.build(List.of(defUse)));
+    }
+
+    /**
+     * have execute, executeParallel and recheck also index each
+     * declaration's uses (see ConstrainResult.getIndex); call it before the
+     * program is constrained
+     */
+    public void indexUses() {
+        indexUses = true;
     }
 
-    public void execute() {
+    /**
+     * open the program's outermost scope with the intrinsic functions in it
+     */
+    private void openProgramScope() {
         symtab.beginScope();
+        enter(prelude.readId, prelude.readTree);
+        enter(prelude.writeId, prelude.writeTree);
+    }
+
+    /**
+     * Constrain the program in two phases: a sequential signature pass
+     * visits everything but function bodies, entering each function's name
+     * and formals and taking a snapshot of the scope its body sees; the
+     * bodies are then constrained concurrently on the pool, each with a
+     * table of its own made from its snapshot<br>
+     * The decorations and errors are the same as those of execute, in the
+     * same order. The bodies and the functions each refers to are kept so
+     * the program can be checked again after an edit (see recheck)
+     */
+    public ConstrainResult executeParallel(ForkJoinPool pool) {
+        units = new IdentityHashMap<>();
+        callers = new IdentityHashMap<>();
+        constrainSkeleton();
+
+        ArrayList<Body> bodies = new ArrayList<>();
+        for (Object item : skeleton) {
+            if (item instanceof Body) {
+                bodies.add((Body) item);
+            }
+        }
+        check(bodies, pool);
+        return result();
+    }
+
+    /**
+     * Check the program again after the given functions were edited in
+     * place (their kids may have been replaced with AST.replaceKid, but
+     * each FunctionDeclTree is the same node); the program must have been
+     * constrained with executeParallel<br>
+     * Only the bodies holding the changed functions are checked again,
+     * along with the bodies calling a changed function whose signature is
+     * no longer the same; the signature pass is run again only if the code
+     * outside function bodies calls such a function
+     *
+     * @return the errors of the whole program, as execute would find them
+     */
+    public ConstrainResult recheck(Collection<AST> changed, ForkJoinPool pool) {
+        if (skeleton == null) {
+            throw new IllegalStateException("recheck needs a program constrained by executeParallel");
+        }
+
+        Set<Body> dirty = new LinkedHashSet<>();
+        boolean skeletonDirty = false;
+        for (AST function : changed) {
+            Body body = units.get(function);
+            if (body == null) {
+                throw new IllegalArgumentException("node " + function.getNodeNum() + " is not a function of the program");
+            }
+            dirty.add(body);
+            if (body.function != function) {
+                // a function declared in a body is only seen by that body
+                continue;
+            }
+
+            Type signature = getSignature(function);
+            body.header();
+            if (getSignature(function) != signature) {
+                dirty.addAll(callers.getOrDefault(function, Set.of()));
+                skeletonDirty |= skeletonUses.contains(function);
+            }
+        }
+
+        if (skeletonDirty) {
+            constrainSkeleton();
+        }
+        check(dirty, pool);
+        return result();
+    }
+
+    /**
+     * the signature pass: visit everything but the function bodies, making
+     * a Body for each function found (or reusing the one it already has)
+     */
+    private void constrainSkeleton() {
+        symtab = new SymbolTable();
+        pending = new ArrayList<>();
+        uses = skeletonUses = Collections.newSetFromMap(new IdentityHashMap<>());
+        defUse = indexUses ? new DefUseIndex.Builder() : null;
+        deferBodies = true;
+        openProgramScope();
         t.accept(this);
+        deferBodies = false;
+
+        skeleton = pending;
+        pending = null;
+        uses = null;
+    }
+
+    /**
+     * constrain the bodies on the pool and record the functions each refers
+     * to and declares
+     */
+    private void check(Collection<Body> bodies, ForkJoinPool pool) {
+        for (Body body : bodies) {
+            forget(body);
+            body.reinitialize();
+            pool.execute(body);
+        }
+        for (Body body : bodies) {
+            body.join();
+        }
+        for (Body body : bodies) {
+            for (AST function : body.uses) {
+                callers.computeIfAbsent(function, f -> Collections.newSetFromMap(new IdentityHashMap<>())).add(body);
+            }
+            for (AST function : body.nested) {
+                units.put(function, body);
+            }
+        }
+    }
+
+    /**
+     * drop what body recorded when it was last checked
+     */
+    private void forget(Body body) {
+        for (AST function : body.uses) {
+            callers.get(function).remove(body);
+        }
+        for (AST function : body.nested) {
+            units.remove(function);
+        }
+    }
+
+    /**
+     * @return the errors of the last checks of the signature pass and the
+     *         bodies, in order, and the uses they found
+     */
+    private ConstrainResult result() {
+        diagnostics = new ArrayList<>();
+        finish(skeleton);
+        if (defUse == null) {
+            return new ConstrainResult(t, diagnostics);
+        }
+
+        ArrayList<DefUseIndex.Builder> parts = new ArrayList<>();
+        parts.add(defUse);
+        for (Object item : skeleton) {
+            if (item instanceof Body) {
+                parts.add(((Body) item).defUse);
+            }
+        }
+        return new ConstrainResult(t, diagnostics, DefUseIndex.Builder.build(parts));
+    }
+
+    /**
+     * add the errors in items to diagnostics, in order
+     */
+    private void finish(List<Object> items) {
+        for (Object item : items) {
+            if (item instanceof Body) {
+                finish(((Body) item).pending);
+            } else {
+                diagnostics.add((Diagnostic) item);
+            }
+        }
+    }
+
+    /**
+     * A function body put off by the signature pass; it's constrained by a
+     * Constrainer of its own, starting from the scope the function was
+     * declared in. A Body is checked again by recheck, so it keeps what it
+     * found the last time: its errors, the functions it looked up and the
+     * functions declared in it
+     */
+    private class Body extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final AST function;
+        // the scope the function's name was entered in
+        private SymbolTable scope;
+        private final ArrayList<Object> pending = new ArrayList<>();
+        private Set<AST> uses = Set.of();
+        private ArrayList<AST> nested = new ArrayList<>();
+        private DefUseIndex.Builder defUse = null;
+
+        Body(AST function) {
+            this.function = function;
+        }
+
+        /**
+         * decorate the function's return type and formals and give it its
+         * signature; done before any body is checked since the bodies
+         * calling the function read them
+         */
+        void header() {
+            Constrainer header = new Constrainer(t, prelude);
+            header.functionTypes = functionTypes;
+            header.signatures = signatures;
+            header.symtab = scope;
+            header.functions.push(function);
+            scope.beginScope();
+            header.constrainHeader(function);
+            scope.endScope();
+        }
+
+        @Override
+        protected void compute() {
+            pending.clear();
+            uses = Collections.newSetFromMap(new IdentityHashMap<>());
+            nested = new ArrayList<>();
+            defUse = indexUses ? new DefUseIndex.Builder() : null;
+
+            Constrainer body = new Constrainer(t, prelude);
+            body.functionTypes = functionTypes;
+            body.scopes = scopes;
+            body.signatures = signatures;
+            body.symtab = scope;
+            body.pending = pending;
+            body.uses = uses;
+            body.nested = nested;
+            body.defUse = defUse;
+            body.functions.push(function);
+
+            // the formals were decorated by header
+            AST formals = function.getKid(3);
+            scope.beginScope();
+            for (int i = 1; i <= formals.kidCount(); i++) {
+                body.enter(formals.getKid(i).getKid(2), formals.getKid(i));
+            }
+            body.nextSlot = formals.kidCount();
+            function.getKid(4).accept(body);
+            scope.endScope();
+        }
+    }
+
+    /**
+     * put off the body of function, the next item of the signature pass
+     */
+    private void deferBody(AST function) {
+        Body body = units.computeIfAbsent(function, f -> new Body(f));
+        body.scope = symtab.snapshot();
+        body.header();
+        pending.add(body);
     }
 
     /**
      * t is an IdTree; retrieve the pointer to its declaration
      */
     private AST lookup(AST t) {
-        return (AST) (symtab.get(((IdTree) t).getSymbol()));
+        AST decl = symtab.get(((IdTree) t).getSymbol());
+        if (uses != null && decl instanceof FunctionDeclTree) {
+            uses.add(decl);
+        }
+        return decl;
     }
 
     /**
@@ -86,54 +409,66 @@ public class Constrainer extends ASTVisitor {
      * @return the intrinsic tree corresponding to the type of t
      */
     private AST getType(AST t) {
-        return (t.getClass() == IntTypeTree.class) ? intTree : boolTree;
+        switch (NodeKind.of(t)) {
+            case IntType:
+                return prelude.intTree;
+            case StringType:
+                return prelude.stringTree;
+            case HexType:
+                return prelude.hexTree;
+            default:
+                return prelude.boolTree;
+        }
     }
 
-    public void decorate(AST t, AST decoration) {
-        t.setDecoration(decoration);
+    /**
+     * @return the Type of the variable or expression decorated with the
+     *         type tree t, or null if t is not a type tree
+     */
+    private Type typeOf(AST t) {
+        return prelude.typeOf(t);
     }
 
     /**
-     * @return the decoration of the tree
+     * @return the declarations visible at the end of the block, as the last
+     *         check of the program left them, or null if the block hasn't
+     *         been constrained
      */
-    public AST decoration(AST t) {
-        return t.getDecoration();
+    public Scope getScope(AST block) {
+        return scopes.get(block);
     }
 
     /**
-     * build the intrinsic trees; constrain them in the same fashion
-     * as any other AST
+     * @return the function Type of the function declared by fct (read and
+     *         write included), or null if its header hasn't been
+     *         constrained
      */
-    private void buildIntrinsicTrees() {
-        Lexer lex = parser.getLex();
-
-        trueTree = new IdTree(lex.anonymousIdentifierToken("true"));
-        falseTree = new IdTree(lex.anonymousIdentifierToken("false"));
-
-        readId = new IdTree(lex.anonymousIdentifierToken("read"));
-        writeId = new IdTree(lex.anonymousIdentifierToken("write"));
-
-        boolTree = (new DeclTree()).addKid(new BoolTypeTree())
-                .addKid(new IdTree(lex.anonymousIdentifierToken("<<bool>>")));
-        decorate(boolTree.getKid(2), boolTree);
-
-        intTree = (new DeclTree()).addKid(new IntTypeTree())
-                .addKid(new IdTree(lex.anonymousIdentifierToken("<<int>>")));
-        decorate(intTree.getKid(2), intTree);
+    public Type getSignature(AST fct) {
+        Type signature = signatures.get(fct);
+        return signature != null ? signature : prelude.signatureOf(fct);
+    }
 
-        // read tree takes no params and returns an int
-        readTree = (new FunctionDeclTree()).addKid(new IntTypeTree()).addKid(readId).addKid(new FormalsTree())
-                .addKid(new BlockTree());
-        readTree.accept(this);
+    /**
+     * give the use of a variable the address resolved at its declaration,
+     * and index the use if asked to
+     */
+    private void resolve(AST use, AST decl) {
+        IdTree declared = (IdTree) decl.getKid(2);
+        ((IdTree) use).setAddress(declared.getFunctionLevel(), declared.getSlot());
+        if (defUse != null && decl != prelude.readTree && decl != prelude.writeTree) {
+            defUse.add(use, decl);
+        }
+    }
 
-        // write tree takes one int param and returns that value
-        writeTree = (new FunctionDeclTree()).addKid(new IntTypeTree()).addKid(writeId);
-        AST decl = (new DeclTree()).addKid(new IntTypeTree())
-                .addKid(new IdTree(lex.anonymousIdentifierToken("dummyFormal")));
-        AST formals = (new FormalsTree()).addKid(decl);
-        writeTree.addKid(formals).addKid(new BlockTree());
-        writeTree.accept(this);
+    public void decorate(AST t, AST decoration) {
+        t.setDecoration(decoration);
+    }
 
+    /**
+     * @return the decoration of the tree
+     */
+    public AST decoration(AST t) {
+        return t.getDecoration();
     }
 
     /**
@@ -141,7 +476,6 @@ public class Constrainer extends ASTVisitor {
      */
     @Override
     public Object visitProgramTree(AST t) {
-        buildIntrinsicTrees();
         this.t = t;
         t.getKid(1).accept(this);
         return null;
@@ -152,15 +486,21 @@ public class Constrainer extends ASTVisitor {
      * <ol>
      * <li>open a new scope,
      * <li>constrain the kids in this new scope,
+     * <li>keep the scope of the block, for tools asking what is visible
+     * in it after constraining (see getScope),
      * <li>close the
      * scope removing any local declarations from this scope
      * </ol>
      */
     @Override
     public Object visitBlockTree(AST t) {
+        int slots = nextSlot;
         symtab.beginScope();
         visitKids(t);
+        scopes.put(t, symtab.getScope());
         symtab.endScope();
+        // the block's variables are popped at its end
+        nextSlot = slots;
 
         return null;
     }
@@ -176,25 +516,43 @@ public class Constrainer extends ASTVisitor {
      */
     @Override
     public Object visitFunctionDeclTree(AST t) {
-        AST fname = t.getKid(2), returnType = t.getKid(1), formalsTree = t.getKid(3), bodyTree = t.getKid(4);
-
-        functions.push(t);
         // enter function name in CURRENT scope
-        enter(fname, t);
+        enter(t.getKid(2), t);
+        if (deferBodies) {
+            deferBody(t);
+            return null;
+        }
+        if (nested != null) {
+            nested.add(t);
+        }
 
-        decorate(returnType, getType(returnType));
+        functions.push(t);
+        int outerSlots = nextSlot;
         // new scope for formals and body
         symtab.beginScope();
-        // all formal names go in new scope
-        visitKids(formalsTree);
-
-        bodyTree.accept(this);
+        constrainHeader(t);
+        t.getKid(4).accept(this);
         symtab.endScope();
         functions.pop();
+        nextSlot = outerSlots;
 
         return null;
     }
 
+    /**
+     * decorate the return type of the function t and enter its formals in
+     * the current scope, from frame offset 0; the function's signature is
+     * worked out here once, for all the calls to it
+     */
+    private void constrainHeader(AST t) {
+        AST returnType = t.getKid(1);
+        decorate(returnType, getType(returnType));
+        nextSlot = 0;
+        // all formal names go in new scope
+        visitKids(t.getKid(3));
+        signatures.put(t, buildSignature(t));
+    }
+
     /**
      * Constrain the Call tree:<br>
      * check that the number and types of the actuals match the
@@ -202,48 +560,61 @@ public class Constrainer extends ASTVisitor {
      */
     @Override
     public Object visitCallTree(AST t) {
-        AST fct, fname = t.getKid(1), fctType;
-        visitKids(t);
+        AST fct, fname = t.getKid(1);
+        fname.accept(this);
+        Type[] actuals = new Type[t.kidCount() - 1];
+        for (int i = 2; i <= t.kidCount(); i++) {
+            actuals[i - 2] = (Type) t.getKid(i).accept(this);
+        }
 
         fct = lookup(fname);
+        if (fct == null) {
+            // reported when fname was visited
+            return Type.ERROR;
+        }
         if (fct.getClass() != FunctionDeclTree.class) {
-            constraintError(ConstrainerErrors.CallingNonFunction);
+            constraintError(ConstrainerErrors.CallingNonFunction, t);
+            return Type.ERROR;
         }
-        fctType = decoration(fct.getKid(1));
+        Type signature = getSignature(fct);
 
-        decorate(t, fctType);
+        decorate(t, decoration(fct.getKid(1)));
         decorate(t.getKid(1), fct);
 
         // now check that the number/types of actuals match the
         // number/types of formals
-        checkArgDecls(t, fct);
-        return fctType;
+        checkArgs(t, signature, actuals);
+        return signature.getResult();
     }
 
-    private void checkArgDecls(AST caller, AST fct) {
-        // check number and types of args/formals match
+    /**
+     * @return the function Type of fct, from the type trees its return type
+     *         and formals are decorated with
+     */
+    private Type buildSignature(AST fct) {
         AST formals = fct.getKid(3);
-        Iterator<AST> actualKids = caller.getKids().iterator(), formalKids = formals.getKids().iterator();
-
-        // skip past fct name
-        actualKids.next();
-        for (; actualKids.hasNext();) {
-            try {
-                AST actualDecl = decoration(actualKids.next()), formalDecl = formalKids.next();
-
-                if (decoration(actualDecl.getKid(2)) != decoration(formalDecl.getKid(2))) {
-                    constraintError(ConstrainerErrors.ActualFormalTypeMismatch);
-                }
-            } catch (Exception e) {
-                constraintError(ConstrainerErrors.NumberActualsFormalsDiffer);
-            }
+        Type[] params = new Type[formals.kidCount()];
+        for (int i = 1; i <= formals.kidCount(); i++) {
+            params[i - 1] = typeOf(decoration(formals.getKid(i).getKid(2)));
         }
+        return functionTypes.function(typeOf(decoration(fct.getKid(1))), params);
+    }
 
-        if (formalKids.hasNext()) {
-            constraintError(ConstrainerErrors.NumberActualsFormalsDiffer);
+    /**
+     * check the actuals of the call caller against the signature of the
+     * function called: an arity compare, then a compare of interned Types
+     */
+    private void checkArgs(AST caller, Type signature, Type[] actuals) {
+        // check number and types of args/formals match
+        if (signature.paramCount() != actuals.length) {
+            constraintError(ConstrainerErrors.NumberActualsFormalsDiffer, caller);
+            return;
+        }
+        for (int i = 0; i < actuals.length; i++) {
+            if (!Type.matches(actuals[i], signature.getParam(i))) {
+                constraintError(ConstrainerErrors.ActualFormalTypeMismatch, caller.getKid(i + 2));
+            }
         }
-
-        return;
     }
 
     /**
@@ -262,30 +633,34 @@ public class Constrainer extends ASTVisitor {
 
         AST typeTree = getType(t.getKid(1));
         decorate(idTree, typeTree);
+        ((IdTree) idTree).setAddress(functions.size(), nextSlot++);
 
         return null;
     }
 
     /**
      * Constrain the <i>If</i> tree:<br>
-     * check that the first kid is an expression that is a boolean type
+     * check that the first kid is an expression that is a boolean type;
+     * the else part (the third kid) is optional
      */
     @Override
     public Object visitIfTree(AST t) {
-        if (t.getKid(1).accept(this) != boolTree) {
-            constraintError(ConstrainerErrors.BadConditional);
+        if (!Type.matches((Type) t.getKid(1).accept(this), Type.BOOL)) {
+            constraintError(ConstrainerErrors.BadConditional, t.getKid(1));
         }
 
         t.getKid(2).accept(this);
-        t.getKid(3).accept(this);
+        if (t.kidCount() > 2) {
+            t.getKid(3).accept(this);
+        }
 
         return null;
     }
 
     @Override
     public Object visitUnlessTree(AST t) {
-        if (t.getKid(1).accept(this) != boolTree) {
-            constraintError(ConstrainerErrors.BadConditional);
+        if (!Type.matches((Type) t.getKid(1).accept(this), Type.BOOL)) {
+            constraintError(ConstrainerErrors.BadConditional, t.getKid(1));
         }
         t.getKid(2).accept(this);
         return null;
@@ -309,8 +684,8 @@ public class Constrainer extends ASTVisitor {
 
     @Override
     public Object visitWhileTree(AST t) {
-        if (t.getKid(1).accept(this) != boolTree) {
-            constraintError(ConstrainerErrors.BadConditional);
+        if (!Type.matches((Type) t.getKid(1).accept(this), Type.BOOL)) {
+            constraintError(ConstrainerErrors.BadConditional, t.getKid(1));
         }
 
         t.getKid(2).accept(this);
@@ -326,15 +701,17 @@ public class Constrainer extends ASTVisitor {
     @Override
     public Object visitReturnTree(AST t) {
         if (functions.empty()) {
-            constraintError(ConstrainerErrors.ReturnNotInFunction);
+            constraintError(ConstrainerErrors.ReturnNotInFunction, t);
+            t.getKid(1).accept(this);
+            return null;
         }
 
         AST currentFunction = (functions.peek());
         decorate(t, currentFunction);
 
-        AST returnType = decoration(currentFunction.getKid(1));
-        if ((t.getKid(1).accept(this)) != returnType) {
-            constraintError(ConstrainerErrors.BadReturnExpr);
+        Type returnType = typeOf(decoration(currentFunction.getKid(1)));
+        if (!Type.matches((Type) t.getKid(1).accept(this), returnType)) {
+            constraintError(ConstrainerErrors.BadReturnExpr, t);
         }
 
         return null;
@@ -343,20 +720,25 @@ public class Constrainer extends ASTVisitor {
     /**
      * Constrain the Assign tree:<br>
      * be sure the types of the right-hand-side expression and variable
-     * match; when we constrain an expression we'll return a reference
-     * to the intrinsic type tree describing the type of the expression
+     * match; when we constrain an expression we'll return the Type of
+     * the expression
      */
     @Override
     public Object visitAssignTree(AST t) {
-        AST idTree = t.getKid(1), idDecl = lookup(idTree), typeTree;
-        decorate(idTree, idDecl);
-
-        typeTree = decoration(idDecl.getKid(2));
+        AST idTree = t.getKid(1), idDecl = lookup(idTree);
+        Type type = Type.ERROR;
+        if (idDecl == null) {
+            constraintError(ConstrainerErrors.UndeclaredIdentifier, idTree);
+        } else {
+            decorate(idTree, idDecl);
+            resolve(idTree, idDecl);
+            type = typeOf(decoration(idDecl.getKid(2)));
+        }
 
         // now check that the types of the expr and id are the same
         // visit the expr tree and get back its type
-        if ((t.getKid(2).accept(this)) != typeTree) {
-            constraintError(ConstrainerErrors.BadAssignmentType);
+        if (!Type.matches((Type) t.getKid(2).accept(this), type)) {
+            constraintError(ConstrainerErrors.BadAssignmentType, t);
         }
 
         return null;
@@ -364,69 +746,62 @@ public class Constrainer extends ASTVisitor {
 
     @Override
     public Object visitIntTree(AST t) {
-        decorate(t, intTree);
-        return intTree;
+        decorate(t, prelude.intTree);
+        return Type.INT;
     }
 
-    //TODO: visitStringTree should return something
     @Override
     public Object visitStringTree(AST t) {
-        decorate(t, new StringTypeTree());
-        return null;
+        decorate(t, prelude.stringTree);
+        return Type.STRING;
     }
 
 
-    /**
-     * When we visit a node in the HexTree, we add the decimal value of that node to the cumulative value of its parent node (which is stored in the IntTree).
-     * This way, we can keep track of the decimal value of each node in the HexTree and calculate the total decimal value of the entire tree.
-     * @param t
-     * @return
-     */
     @Override
     public Object visitHexTree(AST t) {
-        decorate(t, intTree);
-        return null;
+        decorate(t, prelude.hexTree);
+        return Type.HEX;
     }
 
     @Override
     public Object visitIdTree(AST t) {
         AST decl = lookup(t);
+        if (decl == null) {
+            constraintError(ConstrainerErrors.UndeclaredIdentifier, t);
+            return Type.ERROR;
+        }
         decorate(t, decl);
-        return decoration(decl.getKid(2));
+        resolve(t, decl);
+        return typeOf(decoration(decl.getKid(2)));
     }
 
     @Override
     public Object visitRelOpTree(AST t) {
-        AST leftOp = t.getKid(1), rightOp = t.getKid(2);
-
-        if ((AST) (leftOp.accept(this)) != (AST) (rightOp.accept(this))) {
-            constraintError(ConstrainerErrors.TypeMismatchInExpr);
-        }
-
-        decorate(t, boolTree);
-
-        return boolTree;
+        return visitAddOpTree(t);
     }
 
     /**
      * Constrain the expression tree with an adding op at the root:<br>
      * e.g. t1 + t2<br>
-     * check that the types of t1 and t2 match, if it's a plus tree
-     * then the types must be a reference to the intTree
+     * look up the type of the result in the operator table (see
+     * Type.result); e.g. if it's a plus tree the types of t1 and t2 must
+     * both be int, hex or string
      *
      * @return the type of the tree
      */
     @Override
     public Object visitAddOpTree(AST t) {
-        AST leftOpType = (AST) (t.getKid(1).accept(this)), rightOpType = (AST) (t.getKid(2).accept(this));
+        Type leftOpType = (Type) (t.getKid(1).accept(this)), rightOpType = (Type) (t.getKid(2).accept(this));
+        Type type = Type.result(NodeKind.symbolOf(t).getKind(), leftOpType, rightOpType);
 
-        if (leftOpType != rightOpType) {
-            constraintError(ConstrainerErrors.TypeMismatchInExpr);
+        if (type == null) {
+            constraintError(ConstrainerErrors.TypeMismatchInExpr, t);
+            type = Type.ERROR;
         }
 
-        decorate(t, leftOpType);
+        decorate(t, prelude.treeOf(type));
 
-        return leftOpType;
+        return type;
     }
 
     @Override
@@ -464,14 +839,15 @@ public class Constrainer extends ASTVisitor {
         return null;
     }
 
-    void constraintError(ConstrainerErrors err) {
-        PrintVisitor v1 = new PrintVisitor();
-        v1.visitProgramTree(t);
-
-        System.out.println("****CONSTRAINER ERROR: " + err + "   ****");
-        System.exit(1);
-
-        return;
+    /**
+     * record the error err found at node t; constraining goes on
+     */
+    void constraintError(ConstrainerErrors err, AST t) {
+        Diagnostic diagnostic = new Diagnostic(err, t);
+        if (pending != null) {
+            pending.add(diagnostic);
+        } else {
+            diagnostics.add(diagnostic);
+        }
     }
-
 }
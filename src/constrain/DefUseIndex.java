@@ -0,0 +1,133 @@
+package constrain;
+
+import ast.AST;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A DefUseIndex maps each declaration (a DeclTree or FunctionDeclTree) to the
+ * IdTrees using it, and each use back to its declaration<br>
+ * Nodes are told apart by identity, not node number, so a subtree edited in
+ * after parsing (numbered by another AstContext, or not at all) is indexed
+ * like any other. Each declaration gets a row, and the uses are stored in
+ * compressed sparse row form: the uses of the declaration in row r are
+ * uses[useStart[r]] ... uses[useStart[r + 1] - 1], in node number order; so
+ * a query is a lookup plus a scan of the uses found. The intrinsic
+ * functions belong to the Prelude and their uses are not indexed
+ */
+public final class DefUseIndex {
+
+    private static final Comparator<AST> BY_NODE_NUM = Comparator.comparingInt(AST::getNodeNum);
+
+    // the row of each declaration
+    private final IdentityHashMap<AST, Integer> rows;
+    private final int[] useStart;
+    private final AST[] uses;
+    // the declaration used at each use
+    private final IdentityHashMap<AST, AST> declOf;
+
+    private DefUseIndex(IdentityHashMap<AST, Integer> rows, int[] useStart, AST[] uses,
+            IdentityHashMap<AST, AST> declOf) {
+        this.rows = rows;
+        this.useStart = useStart;
+        this.uses = uses;
+        this.declOf = declOf;
+    }
+
+    /**
+     * @return the number of uses indexed
+     */
+    public int size() {
+        return uses.length;
+    }
+
+    /**
+     * @return the number of uses of decl
+     */
+    public int useCount(AST decl) {
+        Integer row = rows.get(decl);
+        return row == null ? 0 : useStart[row + 1] - useStart[row];
+    }
+
+    /**
+     * @return the uses of decl, in node number order
+     */
+    public List<AST> usesOf(AST decl) {
+        Integer row = rows.get(decl);
+        if (row == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(Arrays.asList(uses).subList(useStart[row], useStart[row + 1]));
+    }
+
+    /**
+     * @return the declaration used at use, or null if use is not an indexed
+     *         use
+     */
+    public AST declOf(AST use) {
+        return declOf.get(use);
+    }
+
+    /**
+     * A Builder collects (use, declaration) pairs as they're found; the
+     * Builders of the parts of a program constrained apart are combined by
+     * build
+     */
+    public static class Builder {
+        private AST[] useNodes = new AST[64];
+        private AST[] declNodes = new AST[64];
+        private int size = 0;
+
+        public void add(AST use, AST decl) {
+            if (size == useNodes.length) {
+                useNodes = Arrays.copyOf(useNodes, 2 * size);
+                declNodes = Arrays.copyOf(declNodes, 2 * size);
+            }
+            useNodes[size] = use;
+            declNodes[size++] = decl;
+        }
+
+        /**
+         * @return the index of the pairs collected by the given Builders
+         */
+        public static DefUseIndex build(Iterable<Builder> parts) {
+            // give each declaration a row and count its uses, then place
+            // each use at the next free place in its declaration's row
+            IdentityHashMap<AST, Integer> rows = new IdentityHashMap<>();
+            IdentityHashMap<AST, AST> declOf = new IdentityHashMap<>();
+            int count = 0;
+            int[] useStart = new int[65];
+            for (Builder part : parts) {
+                count += part.size;
+                for (int i = 0; i < part.size; i++) {
+                    int row = rows.computeIfAbsent(part.declNodes[i], d -> rows.size());
+                    if (row + 2 > useStart.length) {
+                        useStart = Arrays.copyOf(useStart, 2 * useStart.length);
+                    }
+                    useStart[row + 1]++;
+                    declOf.put(part.useNodes[i], part.declNodes[i]);
+                }
+            }
+            int rowCount = rows.size();
+            useStart = Arrays.copyOf(useStart, rowCount + 1);
+            for (int r = 0; r < rowCount; r++) {
+                useStart[r + 1] += useStart[r];
+            }
+
+            int[] next = Arrays.copyOf(useStart, rowCount + 1);
+            AST[] uses = new AST[count];
+            for (Builder part : parts) {
+                for (int i = 0; i < part.size; i++) {
+                    uses[next[rows.get(part.declNodes[i])]++] = part.useNodes[i];
+                }
+            }
+            for (int r = 0; r < rowCount; r++) {
+                Arrays.sort(uses, useStart[r], useStart[r + 1], BY_NODE_NUM);
+            }
+            return new DefUseIndex(rows, useStart, uses, declOf);
+        }
+    }
+}
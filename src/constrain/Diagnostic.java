@@ -0,0 +1,39 @@
+package constrain;
+
+import ast.AST;
+
+/**
+ * A Diagnostic records one error found by the Constrainer and the node it
+ * was found at
+ */
+public class Diagnostic {
+
+    private final Constrainer.ConstrainerErrors error;
+    private final AST node;
+
+    public Diagnostic(Constrainer.ConstrainerErrors error, AST node) {
+        this.error = error;
+        this.node = node;
+    }
+
+    public Constrainer.ConstrainerErrors getError() {
+        return error;
+    }
+
+    public AST getNode() {
+        return node;
+    }
+
+    /**
+     * @return the number of the node the error was found at, as printed by
+     *         PrintVisitor
+     */
+    public int getNodeNum() {
+        return node.getNodeNum();
+    }
+
+    @Override
+    public String toString() {
+        return error + " at node " + node.getNodeNum();
+    }
+}
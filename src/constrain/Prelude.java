@@ -0,0 +1,143 @@
+package constrain;
+
+import ast.*;
+import lexer.Symbol;
+import lexer.Tokens;
+
+/**
+ * The Prelude holds the intrinsic trees every program is constrained and
+ * compiled against: the type trees of the base types (see Type), the read
+ * and write functions and the true and false identifiers<br>
+ * A type tree is a DeclTree; it decorates the expressions and variables of
+ * its type<br>
+ * They are built and constrained once, in the same fashion as source
+ * program trees, and never changed afterwards (the code generator's labels
+ * for read and write are set here too), so a single Prelude can be shared
+ * by any number of compilations, including ones running concurrently<br>
+ * The nodes are numbered by the Prelude's own AstContext, so a decoration
+ * pointing into the prelude shows its number in the prelude, not in the
+ * program
+ */
+public final class Prelude {
+
+    public static final String READ_LABEL = "Read", WRITE_LABEL = "Write";
+
+    public final AST readTree, writeTree, intTree, boolTree, stringTree, hexTree,
+            falseTree, trueTree, readId, writeId;
+
+    // the type trees by Type tag
+    private final AST[] typeTrees;
+
+    private static final Type[] BASE_TYPES = { Type.INT, Type.BOOL, Type.STRING, Type.HEX };
+
+    private final AstContext context;
+
+    // the signatures of read and write, set when they're constrained
+    private Type readSignature, writeSignature;
+
+    private Prelude(AstContext context) {
+        this.context = context;
+
+        trueTree = node(new IdTree(intrinsic("true")));
+        falseTree = node(new IdTree(intrinsic("false")));
+
+        readId = node(new IdTree(intrinsic("read")));
+        writeId = node(new IdTree(intrinsic("write")));
+
+        boolTree = node(new DeclTree()).addKid(node(new BoolTypeTree()))
+                .addKid(node(new IdTree(intrinsic("<<bool>>"))));
+        boolTree.getKid(2).setDecoration(boolTree);
+
+        intTree = node(new DeclTree()).addKid(node(new IntTypeTree()))
+                .addKid(node(new IdTree(intrinsic("<<int>>"))));
+        intTree.getKid(2).setDecoration(intTree);
+
+        stringTree = typeTree(new StringTypeTree(), "<<string>>");
+        hexTree = typeTree(new HexTypeTree(), "<<hex>>");
+        typeTrees = new AST[] { intTree, boolTree, stringTree, hexTree };
+
+        // read tree takes no params and returns an int
+        readTree = node(new FunctionDeclTree()).addKid(node(new IntTypeTree())).addKid(readId)
+                .addKid(node(new FormalsTree())).addKid(node(new BlockTree()));
+        readTree.setLabel(READ_LABEL);
+
+        // write tree takes one int param and returns that value
+        writeTree = node(new FunctionDeclTree()).addKid(node(new IntTypeTree())).addKid(writeId);
+        AST decl = node(new DeclTree()).addKid(node(new IntTypeTree()))
+                .addKid(node(new IdTree(intrinsic("dummyFormal"))));
+        AST formals = node(new FormalsTree()).addKid(decl);
+        writeTree.addKid(formals).addKid(node(new BlockTree()));
+        writeTree.setLabel(WRITE_LABEL);
+    }
+
+    /**
+     * @return the Prelude shared by all compilations
+     */
+    public static Prelude get() {
+        return Holder.PRELUDE;
+    }
+
+    /**
+     * build a new Prelude and constrain its functions
+     */
+    static Prelude build() {
+        Prelude prelude = new Prelude(new AstContext());
+        Constrainer constrainer = new Constrainer(prelude.readTree, prelude);
+        prelude.readTree.accept(constrainer);
+        prelude.writeTree.accept(constrainer);
+        prelude.readSignature = constrainer.getSignature(prelude.readTree);
+        prelude.writeSignature = constrainer.getSignature(prelude.writeTree);
+        return prelude;
+    }
+
+    /**
+     * @return the type tree decorating the expressions of a base type, or
+     *         null for a function type
+     */
+    public AST treeOf(Type type) {
+        return type.getTag() < typeTrees.length ? typeTrees[type.getTag()] : null;
+    }
+
+    /**
+     * @return the base type whose type tree is t, or null if t is not a
+     *         type tree
+     */
+    public Type typeOf(AST t) {
+        for (int tag = 0; tag < typeTrees.length; tag++) {
+            if (typeTrees[tag] == t) {
+                return BASE_TYPES[tag];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the signature of read or write, or null for any other tree
+     */
+    Type signatureOf(AST function) {
+        return function == readTree ? readSignature : function == writeTree ? writeSignature : null;
+    }
+
+    private AST typeTree(AST type, String name) {
+        AST tree = node(new DeclTree()).addKid(node(type)).addKid(node(new IdTree(intrinsic(name))));
+        tree.getKid(2).setDecoration(tree);
+        return tree;
+    }
+
+    private AST node(AST t) {
+        return context.number(t);
+    }
+
+    /**
+     * @return the symbol of an identifier that only appears in the
+     *         intrinsic trees
+     */
+    private static Symbol intrinsic(String identifier) {
+        return Symbol.symbol(identifier, Tokens.Identifier);
+    }
+
+    // built when first asked for; class initialization publishes it safely
+    private static class Holder {
+        static final Prelude PRELUDE = build();
+    }
+}
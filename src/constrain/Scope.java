@@ -0,0 +1,148 @@
+package constrain;
+
+import ast.AST;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lexer.Symbol;
+
+/**
+ * A Scope is a persistent map from Symbols to their declarations: put gives
+ * back a new Scope and leaves this one as it was, so a Scope can be kept (for
+ * a block, or by another thread) and read at any time later<br>
+ * It's a hash array mapped trie keyed by Symbol id (see Symbol.getId); each
+ * level uses the next 5 bits of the id to pick one of up to 32 entries,
+ * stored densely in the order of a 32 bit bitmap. A put copies only the
+ * nodes on the path to its key, so it allocates a node per level (at most
+ * 7, usually 1 or 2 for the ids of a program)
+ */
+public final class Scope {
+
+    public static final Scope EMPTY = new Scope(new Node(0, new Object[0]), 0);
+
+    private static final int BITS = 5, MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private Scope(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the value bound to key, or null if it's not bound
+     */
+    public AST get(Symbol key) {
+        int id = key.getId();
+        Node node = root;
+        for (int shift = 0;; shift += BITS) {
+            int bit = 1 << ((id >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object entry = node.entries[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (entry instanceof Leaf) {
+                Leaf leaf = (Leaf) entry;
+                return leaf.id == id ? leaf.value : null;
+            }
+            node = (Node) entry;
+        }
+    }
+
+    /**
+     * @return a Scope with key bound to value and the other bindings of
+     *         this one
+     */
+    public Scope put(Symbol key, AST value) {
+        return put(key.getId(), value);
+    }
+
+    /**
+     * @return a Scope with the Symbol whose id is id bound to value
+     */
+    Scope put(int id, AST value) {
+        boolean[] added = new boolean[1];
+        Node node = put(root, 0, new Leaf(id, value), added);
+        return new Scope(node, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return a copy of node with leaf put in it, at the level whose index
+     *         bits start at shift; added[0] is set if leaf's id was not bound
+     */
+    private static Node put(Node node, int shift, Leaf leaf, boolean[] added) {
+        int bit = 1 << ((leaf.id >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+        if ((node.bitmap & bit) == 0) {
+            Object[] entries = new Object[node.entries.length + 1];
+            System.arraycopy(node.entries, 0, entries, 0, index);
+            entries[index] = leaf;
+            System.arraycopy(node.entries, index, entries, index + 1, node.entries.length - index);
+            added[0] = true;
+            return new Node(node.bitmap | bit, entries);
+        }
+
+        Object entry = node.entries[index], replacement;
+        if (entry instanceof Node) {
+            replacement = put((Node) entry, shift + BITS, leaf, added);
+        } else if (((Leaf) entry).id == leaf.id) {
+            replacement = leaf;
+        } else {
+            // two ids share the bits so far; push both down a level
+            Node split = put(new Node(0, new Object[0]), shift + BITS, (Leaf) entry, added);
+            replacement = put(split, shift + BITS, leaf, added);
+        }
+        Object[] entries = node.entries.clone();
+        entries[index] = replacement;
+        return new Node(node.bitmap, entries);
+    }
+
+    /**
+     * @return the number of Symbols bound
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the Symbols bound, in no particular order
+     */
+    public Set<Symbol> keys() {
+        Set<Symbol> keys = new LinkedHashSet<>();
+        addKeys(root, keys);
+        return keys;
+    }
+
+    private static void addKeys(Node node, Set<Symbol> keys) {
+        for (Object entry : node.entries) {
+            if (entry instanceof Leaf) {
+                keys.add(Symbol.byId(((Leaf) entry).id));
+            } else {
+                addKeys((Node) entry, keys);
+            }
+        }
+    }
+
+    private static final class Node {
+        // bit i is set if the entry for index bits i is present
+        final int bitmap;
+        // the Leafs and Nodes present, in bit order
+        final Object[] entries;
+
+        Node(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Leaf {
+        final int id;
+        final AST value;
+
+        Leaf(int id, AST value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package constrain;
+
+import ast.AST;
+import java.util.Arrays;
+import java.util.Set;
+import lexer.Symbol;
+
+/**
+ * SymbolTable does the job of Table without allocating on every put and
+ * scope: the current binding of each Symbol is kept in an array indexed by
+ * the Symbol's id (see Symbol.getId), so get is an array read<br>
+ * Each put records the symbol's id and the binding it replaced in an undo
+ * log; beginScope pushes the length of the log as a mark and endScope
+ * restores the replaced bindings back to the mark and truncates the log.
+ * For the sequence of events in the comment on Table:
+ *
+ * <pre>
+ * t.put(Symbol("a"),5)    log: (a,null)
+ * t.beginScope()          marks: 1
+ * t.put(Symbol("b"),7)    log: (a,null) (b,null)
+ * t.put(Symbol("a"),9)    log: (a,null) (b,null) (a,5)
+ * t.endScope()            log: (a,null); a is bound to 5 again
+ * </pre>
+ * put, beginScope and endScope only allocate when an array grows. The
+ * bindings can also be had as a persistent Scope (see getScope and
+ * snapshot), built only when asked for: the puts logged since the last
+ * Scope built that is still current are applied to it, each copying a
+ * path of the Scope's trie, and the result is kept until the scope it was
+ * built in ends. So a Scope costs a path copy for each put made since the
+ * one before it, and a table never asked for one pays nothing. A table
+ * made from a Scope reads through to it for symbols it hasn't bound itself
+ */
+public class SymbolTable {
+
+    // bindings[id] is the current binding of the Symbol with that id
+    private AST[] bindings = new AST[256];
+
+    // the undo log: the ids put and the bindings they replaced
+    private int[] logIds = new int[64];
+    private AST[] logValues = new AST[64];
+    private int logSize = 0;
+
+    // the log size at each beginScope not yet ended
+    private int[] marks = new int[16];
+    private int markCount = 0;
+
+    // the table's outermost bindings
+    private final Scope base;
+    // the Scopes built by getScope that are still current, with the log
+    // size each was built at, oldest first
+    private int[] checkpointLogs = new int[16];
+    private Scope[] checkpoints = new Scope[16];
+    private int checkpointCount = 0;
+
+    public SymbolTable() {
+        this(Scope.EMPTY);
+    }
+
+    /**
+     * @param base holds the bindings of the table's outermost scope
+     */
+    public SymbolTable(Scope base) {
+        this.base = base;
+    }
+
+    /**
+     * @return the value bound to key, or null if it's not bound
+     */
+    public AST get(Symbol key) {
+        int id = key.getId();
+        AST value = id < bindings.length ? bindings[id] : null;
+        return value != null || base == Scope.EMPTY ? value : base.get(key);
+    }
+
+    /**
+     * bind key to value in the current scope; the binding it replaces is
+     * restored when the scope ends
+     */
+    public void put(Symbol key, AST value) {
+        int id = key.getId();
+        if (id >= bindings.length) {
+            bindings = Arrays.copyOf(bindings, Math.max(2 * bindings.length, id + 1));
+        }
+        if (logSize == logIds.length) {
+            logIds = Arrays.copyOf(logIds, 2 * logSize);
+            logValues = Arrays.copyOf(logValues, 2 * logSize);
+        }
+        logIds[logSize] = id;
+        logValues[logSize++] = bindings[id];
+        bindings[id] = value;
+    }
+
+    public void beginScope() {
+        if (markCount == marks.length) {
+            marks = Arrays.copyOf(marks, 2 * markCount);
+        }
+        marks[markCount++] = logSize;
+    }
+
+    /**
+     * Restores the table to what it was at the most recent beginScope
+     * that has not already been ended.
+     */
+    public void endScope() {
+        int mark = marks[--markCount];
+        while (logSize > mark) {
+            logSize--;
+            bindings[logIds[logSize]] = logValues[logSize];
+            logValues[logSize] = null;
+        }
+        // the Scopes holding bindings of the ended scope are no longer current
+        while (checkpointCount > 0 && checkpointLogs[checkpointCount - 1] > mark) {
+            checkpoints[--checkpointCount] = null;
+        }
+    }
+
+    /**
+     * @return a new table whose outermost scope holds the bindings this
+     *         table has now; later changes to either table don't affect the
+     *         other, so the copy can be handed to another thread
+     */
+    public SymbolTable snapshot() {
+        return new SymbolTable(getScope());
+    }
+
+    /**
+     * @return the bindings the table has now; the Scope doesn't change when
+     *         the table does
+     */
+    public Scope getScope() {
+        Scope scope = checkpointCount == 0 ? base : checkpoints[checkpointCount - 1];
+        int from = checkpointCount == 0 ? 0 : checkpointLogs[checkpointCount - 1];
+        if (from == logSize) {
+            return scope;
+        }
+
+        // a symbol put more than once is put again with the same binding
+        for (int i = from; i < logSize; i++) {
+            scope = scope.put(logIds[i], bindings[logIds[i]]);
+        }
+        if (checkpointCount == checkpoints.length) {
+            checkpointLogs = Arrays.copyOf(checkpointLogs, 2 * checkpointCount);
+            checkpoints = Arrays.copyOf(checkpoints, 2 * checkpointCount);
+        }
+        checkpointLogs[checkpointCount] = logSize;
+        checkpoints[checkpointCount++] = scope;
+        return scope;
+    }
+
+    /**
+     * @return the Symbols bound in the table
+     */
+    public Set<Symbol> keys() {
+        return getScope().keys();
+    }
+}
@@ -0,0 +1,191 @@
+package constrain;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import lexer.Tokens;
+
+/**
+ * A Type is the type of an expression as worked out by the Constrainer.
+ * Types are interned, so two types are the same exactly when they are the
+ * same object, and each has a small integer tag<ul>
+ * <li>the base types INT, BOOL, STRING and HEX have the tags 0 to 3,
+ * <li>ERROR, the type of an expression with an error in it, has the tag 4;
+ * it goes with every type, so one error isn't reported again by each
+ * expression around it,
+ * <li>each function signature (its result and parameter types) is
+ * interned by the Functions table of the compilation it's found in, which
+ * gives it the table's next tag the first time it's asked for</ul>
+ * The result types of the operators on the base types are worked out once,
+ * into a table indexed by operator and operand tags (see result)
+ */
+public final class Type {
+
+    public static final int INT_TAG = 0, BOOL_TAG = 1, STRING_TAG = 2, HEX_TAG = 3, ERROR_TAG = 4;
+    private static final int BASE_TYPES = 4;
+
+    public static final Type INT = new Type(INT_TAG, "int", null, null);
+    public static final Type BOOL = new Type(BOOL_TAG, "boolean", null, null);
+    public static final Type STRING = new Type(STRING_TAG, "string", null, null);
+    public static final Type HEX = new Type(HEX_TAG, "hex", null, null);
+    public static final Type ERROR = new Type(ERROR_TAG, "<<error>>", null, null);
+
+    private static final Type[] BASE = { INT, BOOL, STRING, HEX };
+
+    // RESULTS[op][left][right] is the tag of the result of left op right,
+    // or -1 if op can't be applied to those types
+    private static final int[][][] RESULTS = results();
+
+    private final int tag;
+    private final String name;
+    private final Type result;
+    private final Type[] params;
+
+    private Type(int tag, String name, Type result, Type[] params) {
+        this.tag = tag;
+        this.name = name;
+        this.result = result;
+        this.params = params;
+    }
+
+    /**
+     * A Functions table interns the function types of one compilation, so
+     * they are dropped along with it; function types from different tables
+     * are never the same, and their tags may coincide, so types of
+     * different compilations must not be compared
+     */
+    public static final class Functions {
+        // the function types by their result type followed by their parameters
+        private final HashMap<List<Type>, Type> types = new HashMap<>();
+        private int nextTag = ERROR_TAG + 1;
+
+        /**
+         * @return the interned type of functions returning result and taking
+         *         parameters of the given types, in order
+         */
+        public synchronized Type function(Type result, Type... params) {
+            Type[] key = new Type[params.length + 1];
+            key[0] = result;
+            System.arraycopy(params, 0, key, 1, params.length);
+
+            List<Type> signature = Arrays.asList(key);
+            Type type = types.get(signature);
+            if (type == null) {
+                StringBuilder name = new StringBuilder(String.valueOf(result)).append('(');
+                for (int i = 0; i < params.length; i++) {
+                    name.append(i > 0 ? ", " : "").append(params[i]);
+                }
+                type = new Type(nextTag++, name.append(')').toString(), result, params.clone());
+                types.put(signature, type);
+            }
+            return type;
+        }
+    }
+
+    /**
+     * @return the type of the result of left op right, ERROR if either is
+     *         ERROR, or null if op can't be applied to operands of those
+     *         types
+     */
+    public static Type result(Tokens op, Type left, Type right) {
+        if (left == ERROR || right == ERROR) {
+            return ERROR;
+        }
+        if (left == null || right == null || left.tag >= BASE_TYPES || right.tag >= BASE_TYPES) {
+            return null;
+        }
+        int tag = RESULTS[op.ordinal()][left.tag][right.tag];
+        return tag < 0 ? null : BASE[tag];
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    /**
+     * @return true if a value of type actual can be used where one of type
+     *         expected is wanted; ERROR can be used anywhere
+     */
+    public static boolean matches(Type actual, Type expected) {
+        return actual == expected || actual == ERROR || expected == ERROR;
+    }
+
+    public boolean isFunction() {
+        return params != null;
+    }
+
+    /**
+     * @return the result type of a function type
+     */
+    public Type getResult() {
+        return result;
+    }
+
+    /**
+     * @return the number of parameters of a function type
+     */
+    public int paramCount() {
+        return params.length;
+    }
+
+    /**
+     * @return the type of parameter i of a function type; the first is 0
+     */
+    public Type getParam(int i) {
+        return params[i];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * <ul>
+     * <li>+ applies to int, hex and string (concatenation),
+     * <li>- * / % apply to int and hex,
+     * <li>| and &amp; apply to boolean, int and hex,
+     * <li>== and != compare any two values of the same base type,
+     * <li>&lt; &lt;= &gt; &gt;= compare int, hex and string values</ul>
+     * the operands of an operator always have the same type
+     */
+    private static int[][][] results() {
+        int[][][] results = new int[Tokens.values().length][BASE_TYPES][BASE_TYPES];
+        for (int[][] op : results) {
+            for (int[] left : op) {
+                Arrays.fill(left, -1);
+            }
+        }
+
+        for (Tokens op : List.of(Tokens.Plus, Tokens.Minus, Tokens.Multiply, Tokens.Divide, Tokens.Modulo)) {
+            same(results, op, INT_TAG, INT_TAG);
+            same(results, op, HEX_TAG, HEX_TAG);
+        }
+        same(results, Tokens.Plus, STRING_TAG, STRING_TAG);
+
+        for (Tokens op : List.of(Tokens.Or, Tokens.And)) {
+            same(results, op, BOOL_TAG, BOOL_TAG);
+            same(results, op, INT_TAG, INT_TAG);
+            same(results, op, HEX_TAG, HEX_TAG);
+        }
+
+        for (Tokens op : List.of(Tokens.Equal, Tokens.NotEqual)) {
+            for (int tag = 0; tag < BASE_TYPES; tag++) {
+                same(results, op, tag, BOOL_TAG);
+            }
+        }
+        for (Tokens op : List.of(Tokens.Less, Tokens.LessEqual, Tokens.Greater, Tokens.GreaterEqual)) {
+            same(results, op, INT_TAG, BOOL_TAG);
+            same(results, op, HEX_TAG, BOOL_TAG);
+            same(results, op, STRING_TAG, BOOL_TAG);
+        }
+        return results;
+    }
+
+    /**
+     * record that op applied to two operands of type operand gives result
+     */
+    private static void same(int[][][] results, Tokens op, int operand, int result) {
+        results[op.ordinal()][operand][operand] = result;
+    }
+}
@@ -0,0 +1,109 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * PackedTokens holds a whole token stream in parallel int arrays: the
+ * ordinal of each token's kind, its Symbol id, its positions and its line;
+ * a consumer walks it with an index and compares kinds as ints<br>
+ * Token objects are only created on request, e.g. for a SyntaxError; the
+ * last entry is always an EOF entry
+ */
+public class PackedTokens {
+
+    private static final int EOF = Tokens.EOF.ordinal();
+
+    private int[] kinds = new int[256];
+    private int[] symbols = new int[256];
+    private int[] leftPositions = new int[256];
+    private int[] rightPositions = new int[256];
+    private int[] lines = new int[256];
+    private int size = 0;
+
+    private PackedTokens() {
+    }
+
+    /**
+     * Read the lexer's tokens up to and including EOF; a lexer that runs out
+     * of tokens (returns null) gets an EOF entry with no token behind it
+     *
+     * @param lex is the lexer to drain
+     * @return the packed tokens
+     */
+    public static PackedTokens pack(ILexer lex) {
+        PackedTokens packed = new PackedTokens();
+        Token token;
+
+        do {
+            token = lex.nextToken();
+            packed.add(token);
+        } while (token != null && token.getKind() != Tokens.EOF);
+
+        return packed;
+    }
+
+    private void add(Token token) {
+        if (size == kinds.length) {
+            int length = 2 * size;
+            kinds = Arrays.copyOf(kinds, length);
+            symbols = Arrays.copyOf(symbols, length);
+            leftPositions = Arrays.copyOf(leftPositions, length);
+            rightPositions = Arrays.copyOf(rightPositions, length);
+            lines = Arrays.copyOf(lines, length);
+        }
+
+        if (token == null) {
+            kinds[size] = EOF;
+            symbols[size] = -1;
+        } else {
+            kinds[size] = token.getKind().ordinal();
+            symbols[size] = token.getSymbol().getId();
+            leftPositions[size] = token.getLeftPosition();
+            rightPositions[size] = token.getRightPosition();
+            lines[size] = token.getLineNumber();
+        }
+        size++;
+    }
+
+    /**
+     * @return the number of tokens, including the final EOF entry
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the ordinal of the kind of token i; positions past the end
+     *         read as EOF
+     */
+    public int kind(int i) {
+        return i < size ? kinds[i] : EOF;
+    }
+
+    /**
+     * @return the id of the Symbol of token i (see Symbol.byId)
+     */
+    public int symbolId(int i) {
+        return symbols[i];
+    }
+
+    public Symbol symbol(int i) {
+        return Symbol.byId(symbols[i]);
+    }
+
+    public int lineNumber(int i) {
+        return lines[i];
+    }
+
+    /**
+     * @return a Token object for token i, or null for the EOF entry of a
+     *         lexer that ran out of tokens
+     */
+    public Token token(int i) {
+        i = Math.min(i, size - 1);
+        if (symbols[i] == -1) {
+            return null;
+        }
+        return new Token(leftPositions[i], rightPositions[i], Symbol.byId(symbols[i]), lines[i]);
+    }
+}
@@ -1,23 +1,36 @@
 package lexer;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
  * The Symbol class is used to store all user strings along with
  * an indication of the kind of strings they are; e.g. the id "abc" will
- * store the "abc" in name and Sym.Tokens.Identifier in kind
+ * store the "abc" in name and Sym.Tokens.Identifier in kind<br>
+ * Each Symbol also gets a dense integer id (0, 1, 2, ... in order of
+ * creation) so tables can be indexed by symbol instead of hashed<br>
+ * Symbols are kept for the life of the JVM and shared by every compilation
+ * (packed token arrays and flat trees hold ids, not Symbols); so a
+ * long-running service keeps every distinct lexeme it has seen, and runs
+ * out of ids after Integer.MAX_VALUE of them
  **/
 public class Symbol {
     // symbols contains all strings in the source program
     private static HashMap<String, Symbol> symbols = new HashMap<>();
+    // byId[id] is the symbol with that id; reassigned after every store so
+    // readers of the volatile field see the new entry
+    private static volatile Symbol[] byId = new Symbol[256];
+    private static int count = 0;
 
     private String lexeme;
     // token kind of symbol
     private Tokens kind;
+    private int id;
 
-    private Symbol(String lexeme, Tokens kind) {
+    private Symbol(String lexeme, Tokens kind, int id) {
         this.lexeme = lexeme;
         this.kind = kind;
+        this.id = id;
     }
 
     public String toString() {
@@ -28,11 +41,22 @@ public class Symbol {
         return kind;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the symbol with the given id
+     */
+    public static Symbol byId(int id) {
+        return byId[id];
+    }
+
     /**
      * Return the unique symbol associated with a string.
      * Repeated calls to symbol("abc") will return the same Symbol.
      */
-    public static Symbol symbol(String newTokenString, Tokens kind) {
+    public static synchronized Symbol symbol(String newTokenString, Tokens kind) {
         Symbol s = symbols.get(newTokenString);
 
         if (s == null) {
@@ -40,8 +64,18 @@ public class Symbol {
                 // bogus string so don't enter into symbols
                 return null;
             }
-            s = new Symbol(newTokenString, kind);
+            if (count == Integer.MAX_VALUE) {
+                throw new IllegalStateException("out of symbol ids");
+            }
+            s = new Symbol(newTokenString, kind, count);
             symbols.put(newTokenString, s);
+
+            Symbol[] table = byId;
+            if (count == table.length) {
+                table = Arrays.copyOf(table, (int) Math.min(2L * count, Integer.MAX_VALUE));
+            }
+            table[count++] = s;
+            byId = table;
         }
 
         return s;
@@ -11,7 +11,7 @@ public class TokenType {
 
   public static Map<Tokens,Symbol> tokens = new HashMap<>();
 
-  public static void init() {
+  public static synchronized void init() {
 
     tokens.put(Tokens.Program, Symbol.symbol("program",Tokens.Program));
     tokens.put(Tokens.Int, Symbol.symbol("int",Tokens.Int));
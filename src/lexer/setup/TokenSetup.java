@@ -83,7 +83,7 @@ public class TokenSetup {
         tokenType
                 .println("  public static Map<Tokens,Symbol> tokens = new HashMap<>();");
         tokenType.println("");
-        tokenType.println("  public static void init() {");
+        tokenType.println("  public static synchronized void init() {");
 
         tokens.println("package lexer;");
         tokens.println("");
@@ -0,0 +1,67 @@
+package parser;
+
+import ast.*;
+import java.util.ArrayList;
+import lexer.Symbol;
+
+/**
+ * The AstBuilder listener builds the <b>Abstract Syntax Tree</b> from the
+ * parse events (see TreeBuilder); a node's handle is its index in the
+ * nodes list
+ *
+ * Nodes are allocated and numbered by the AstContext of the compilation
+ */
+public class AstBuilder extends TreeBuilder {
+
+    private final AstContext context;
+    // shares equal literal/operator subtrees when set
+    private final HashConser conser;
+
+    // the nodes made so far, by handle; dropped once the tree is finished
+    private ArrayList<AST> nodes = new ArrayList<AST>();
+
+    private AST tree;
+
+    public AstBuilder(AstContext context) {
+        this(context, null);
+    }
+
+    /**
+     * @param conser is used to share structurally equal expression subtrees
+     *               (see HashConser); null to build a plain tree
+     */
+    public AstBuilder(AstContext context, HashConser conser) {
+        this.context = context;
+        this.conser = conser;
+    }
+
+    /**
+     * @return the program tree once exitProgram has been seen
+     */
+    public AST getTree() {
+        return tree;
+    }
+
+    @Override
+    protected int node(NodeKind kind, Symbol symbol) {
+        nodes.add(context.newTree(kind, symbol));
+        return nodes.size() - 1;
+    }
+
+    @Override
+    protected void finish(int n, int[] kids, int from, int to) {
+        AST t = nodes.get(n);
+        for (int i = from; i < to; i++) {
+            t.addKid(nodes.get(kids[i]));
+        }
+        if (conser != null) {
+            nodes.set(n, conser.intern(t));
+        }
+    }
+
+    @Override
+    protected void program(int root) {
+        tree = nodes.get(root);
+        nodes = null;
+    }
+}
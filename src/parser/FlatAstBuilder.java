@@ -0,0 +1,46 @@
+package parser;
+
+import ast.AstContext;
+import ast.FlatAst;
+import ast.NodeKind;
+import lexer.Symbol;
+
+/**
+ * The FlatAstBuilder listener builds a FlatAst from the parse events (see
+ * TreeBuilder) without creating any AST objects; a node's handle is its
+ * index in the FlatAst.Builder, so the nodes get the same numbers and kids
+ * as AstBuilder gives them
+ */
+public class FlatAstBuilder extends TreeBuilder {
+
+    private final AstContext context;
+    private final FlatAst.Builder builder = new FlatAst.Builder();
+
+    private FlatAst tree;
+
+    public FlatAstBuilder(AstContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return the program tree once exitProgram has been seen
+     */
+    public FlatAst getTree() {
+        return tree;
+    }
+
+    @Override
+    protected int node(NodeKind kind, Symbol symbol) {
+        return builder.add(kind, symbol, context.nextNumber());
+    }
+
+    @Override
+    protected void finish(int n, int[] kids, int from, int to) {
+        builder.setKids(n, kids, from, to);
+    }
+
+    @Override
+    protected void program(int root) {
+        tree = builder.build(root);
+    }
+}
@@ -0,0 +1,248 @@
+package parser;
+
+import ast.AstFile;
+import ast.FlatAst;
+import ast.NodeKind;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lexer.Tokens;
+
+/**
+ * A ParseCache keeps the trees of parsed programs on local disk so an
+ * unchanged source file is neither lexed nor parsed again (see the Parser
+ * constructor taking a ParseCache)<br>
+ * A tree is stored in an AstFile named by the SHA-256 hash of the source
+ * bytes together with the grammar, the token kinds and the AstFile version,
+ * so changing any of those misses the old entries (the node kinds are part of
+ * the format, since a file stores their ordinals). When the files take more
+ * than maxBytes the least recently used ones are deleted; a file's
+ * modification time records its last use, so the order survives restarts<br>
+ * A cache may be shared by parsers on several threads; files are read and
+ * written without holding the cache's lock, but moved into place and deleted
+ * under it, so the entries and the files agree
+ */
+public class ParseCache {
+
+    private static final String SUFFIX = ".ast";
+    private static final byte[] VERSION = version();
+
+    private final Path directory;
+    private final long maxBytes;
+    // cached entries, least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private long hits = 0, misses = 0;
+
+    /**
+     * @param directory is where the trees are stored; it's created if needed
+     *                  and entries left there by earlier runs are used
+     * @param maxBytes  is the most disk space the stored trees may take
+     */
+    public ParseCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(ParseCache::lastUsed));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(keyOf(file), new Entry(size));
+            totalBytes += size;
+        }
+        evict();
+    }
+
+    /**
+     * @return the key of a source program: the hex SHA-256 hash of its bytes
+     *         and the version of the grammar, tokens and file format
+     */
+    public static String key(byte[] source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(VERSION);
+            digest.update(source);
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the tree stored for key, or null if there is none (a miss); an
+     *         entry that can't be loaded is dropped and counts as a miss<br>
+     *         The file is read without holding the cache's lock, so parsers
+     *         sharing the cache load their trees at the same time
+     */
+    public FlatAst lookup(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+        }
+
+        Path file = fileOf(key);
+        FlatAst tree;
+        try {
+            tree = AstFile.load(file);
+        } catch (IOException e) {
+            // corrupt, or evicted since we looked; if the entry was stored
+            // again meanwhile, its new file is left alone
+            synchronized (this) {
+                if (entries.get(key) == entry) {
+                    entries.remove(key);
+                    totalBytes -= entry.size;
+                    delete(file);
+                }
+                misses++;
+            }
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the tree is good; the entry just keeps its older place in the
+            // order it's evicted in after a restart
+        }
+        synchronized (this) {
+            hits++;
+        }
+        return tree;
+    }
+
+    /**
+     * store the tree for key, evicting least recently used entries if the
+     * cache grows past its limit; the file is written without holding the
+     * cache's lock, and moved into place under it
+     */
+    public void store(String key, FlatAst tree) throws IOException {
+        Path file = fileOf(key);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            AstFile.write(tree, temp);
+            long size = Files.size(temp);
+            synchronized (this) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Entry old = entries.put(key, new Entry(size));
+                totalBytes += size - (old == null ? 0 : old.size);
+                evict();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of trees stored
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the disk space taken by the stored trees
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * forget least recently used entries, and delete their files, until the
+     * rest fit in maxBytes; called with the lock held
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            delete(fileOf(entry.getKey()));
+            totalBytes -= entry.getValue().size;
+            eldest.remove();
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the entry is forgotten all the same
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static String keyOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    private static FileTime lastUsed(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * @return the bytes identifying the grammar, the token kinds, the node
+     *         kinds and the AstFile format; a change to any of them changes
+     *         every key
+     */
+    private static byte[] version() {
+        String version = AstFile.VERSION + "\n" + Arrays.toString(Tokens.values()) + "\n"
+                + Arrays.toString(NodeKind.values()) + "\n" + String.join("\n", ParseTable.PRODUCTIONS);
+        return version.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * a cached tree; a new Entry is made each time a tree is stored, so a
+     * lookup can tell whether the entry it found has been replaced since
+     */
+    private static final class Entry {
+        final long size;
+
+        Entry(long size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package parser;
+
+import lexer.Symbol;
+import lexer.Tokens;
+
+/**
+ * A ParseListener is told about each construct as the Parser recognizes it,
+ * in source order; constructs with parts get an enter and an exit event
+ * bracketing the events for those parts<br>
+ * The operator events arrive after the events for the left operand: e.g.
+ * a + b is reported as id(a), enterAddOp(+), id(b), exitAddOp()<br>
+ * Every event does nothing by default so a listener only needs to override
+ * the events it is interested in; TreeBuilder overrides them all to build
+ * a tree (an AST with AstBuilder, a FlatAst with FlatAstBuilder)
+ */
+public interface ParseListener {
+
+    default void enterProgram() {}
+
+    default void exitProgram() {}
+
+    default void enterBlock() {}
+
+    default void exitBlock() {}
+
+    /**
+     * a variable declaration (including a formal parameter)
+     *
+     * @param type is the kind of the type token: Int, BOOLean, StringType or
+     *             HexType
+     * @param name is the declared identifier
+     */
+    default void decl(Tokens type, Symbol name) {}
+
+    /**
+     * the start of a function declaration; the formals and the body follow
+     */
+    default void enterFunctionDecl(Tokens type, Symbol name) {}
+
+    default void exitFunctionDecl() {}
+
+    default void enterFormals() {}
+
+    default void exitFormals() {}
+
+    default void enterIf() {}
+
+    default void exitIf() {}
+
+    default void enterWhile() {}
+
+    default void exitWhile() {}
+
+    default void enterReturn() {}
+
+    default void exitReturn() {}
+
+    default void enterUnless() {}
+
+    default void exitUnless() {}
+
+    default void enterSelect() {}
+
+    default void exitSelect() {}
+
+    default void enterSelectBlock() {}
+
+    default void exitSelectBlock() {}
+
+    default void enterSelector() {}
+
+    default void exitSelector() {}
+
+    /**
+     * the start of an assignment to name; the expression follows
+     */
+    default void enterAssign(Symbol name) {}
+
+    default void exitAssign() {}
+
+    /**
+     * the start of a call of name; the actual arguments follow
+     */
+    default void enterCall(Symbol name) {}
+
+    default void exitCall() {}
+
+    /**
+     * an identifier used in an expression (not a call)
+     */
+    default void id(Symbol name) {}
+
+    default void intLit(Symbol value) {}
+
+    default void stringLit(Symbol value) {}
+
+    default void hexLit(Symbol value) {}
+
+    default void enterRelOp(Symbol op) {}
+
+    default void exitRelOp() {}
+
+    default void enterAddOp(Symbol op) {}
+
+    default void exitAddOp() {}
+
+    default void enterMultOp(Symbol op) {}
+
+    default void exitMultOp() {}
+
+    /**
+     * only sent while recovering: e made the parser drop the declaration or
+     * statement it was parsing in the innermost block that is still open;
+     * anything entered since that block was entered and not exited yet is
+     * abandoned and will get no exit event
+     */
+    default void recovered(SyntaxError e) {}
+}
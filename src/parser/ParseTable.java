@@ -0,0 +1,417 @@
+package parser;
+
+import java.util.Arrays;
+import lexer.Tokens;
+
+/**
+ * This file is automatically generated
+ * it contains the LL(1) prediction table for the grammar
+ * in parser/setup/grammar.txt; PREDICT[nonterminal][token ordinal]
+ * is the production to expand the nonterminal with, or NO_PRODUCTION
+ */
+public class ParseTable {
+
+  // nonterminals
+  public static final int PROGRAM = 0;
+  public static final int BLOCK = 1;
+  public static final int DECLS = 2;
+  public static final int STMTS = 3;
+  public static final int D = 4;
+  public static final int DECL_REST = 5;
+  public static final int TYPE = 6;
+  public static final int FUNHEAD = 7;
+  public static final int FORMALS = 8;
+  public static final int MORE_FORMALS = 9;
+  public static final int S = 10;
+  public static final int IF_STATEMENT = 11;
+  public static final int ELSE_PART = 12;
+  public static final int ELSE_BODY = 13;
+  public static final int SELECT_BLOCK = 14;
+  public static final int SELECTORS = 15;
+  public static final int SELECTOR = 16;
+  public static final int E = 17;
+  public static final int RELATION = 18;
+  public static final int RELOP = 19;
+  public static final int SE = 20;
+  public static final int ADDITIONS = 21;
+  public static final int ADDOP = 22;
+  public static final int T = 23;
+  public static final int PRODUCTS = 24;
+  public static final int MULTOP = 25;
+  public static final int F = 26;
+  public static final int CALL_REST = 27;
+  public static final int ACTUALS = 28;
+  public static final int MORE_ACTUALS = 29;
+  public static final int NAME = 30;
+
+  // labelled productions
+  public static final int MORE_DECLS = 2; // DECLS -> D DECLS
+  public static final int NO_DECLS = 3; // DECLS ->
+  public static final int MORE_STMTS = 4; // STMTS -> S STMTS
+  public static final int NO_STMTS = 5; // STMTS ->
+  public static final int FUNCTION_DECL = 7; // DECL_REST -> FUNHEAD BLOCK
+  public static final int VARIABLE_DECL = 8; // DECL_REST ->
+  public static final int INT_TYPE = 9; // TYPE -> Int
+  public static final int BOOL_TYPE = 10; // TYPE -> BOOLean
+  public static final int STRING_TYPE = 11; // TYPE -> StringType
+  public static final int HEX_TYPE = 12; // TYPE -> HexType
+  public static final int SOME_FORMALS = 14; // FORMALS -> D MORE_FORMALS
+  public static final int NO_FORMALS = 15; // FORMALS ->
+  public static final int NEXT_FORMAL = 16; // MORE_FORMALS -> Comma D MORE_FORMALS
+  public static final int LAST_FORMAL = 17; // MORE_FORMALS ->
+  public static final int IF = 18; // S -> IF_STATEMENT
+  public static final int WHILE = 19; // S -> While E BLOCK
+  public static final int RETURN = 20; // S -> Return E
+  public static final int BLOCK_STATEMENT = 21; // S -> BLOCK
+  public static final int UNLESS = 22; // S -> Unless E Then BLOCK
+  public static final int SELECT = 23; // S -> Select SELECT_BLOCK
+  public static final int ASSIGN = 24; // S -> NAME Assign E
+  public static final int ELSE = 26; // ELSE_PART -> Else ELSE_BODY
+  public static final int NO_ELSE = 27; // ELSE_PART ->
+  public static final int ELSE_IF = 28; // ELSE_BODY -> IF_STATEMENT
+  public static final int ELSE_BLOCK = 29; // ELSE_BODY -> BLOCK
+  public static final int MORE_SELECTORS = 31; // SELECTORS -> SELECTOR SELECTORS
+  public static final int NO_SELECTORS = 32; // SELECTORS ->
+  public static final int RELATION_OP = 35; // RELATION -> RELOP SE
+  public static final int NO_RELATION = 36; // RELATION ->
+  public static final int ADDITION = 44; // ADDITIONS -> ADDOP T ADDITIONS
+  public static final int NO_ADDITION = 45; // ADDITIONS ->
+  public static final int PRODUCT = 50; // PRODUCTS -> MULTOP F PRODUCTS
+  public static final int NO_PRODUCT = 51; // PRODUCTS ->
+  public static final int PARENTHESIZED = 56; // F -> LeftParen E RightParen
+  public static final int INT_LITERAL = 57; // F -> INTeger
+  public static final int STRING_LITERAL = 58; // F -> StringLit
+  public static final int HEX_LITERAL = 59; // F -> HexLit
+  public static final int NAME_OR_CALL = 60; // F -> NAME CALL_REST
+  public static final int CALL = 61; // CALL_REST -> LeftParen ACTUALS RightParen
+  public static final int NO_CALL = 62; // CALL_REST ->
+  public static final int SOME_ACTUALS = 63; // ACTUALS -> E MORE_ACTUALS
+  public static final int NO_ACTUALS = 64; // ACTUALS ->
+  public static final int NEXT_ACTUAL = 65; // MORE_ACTUALS -> Comma E MORE_ACTUALS
+  public static final int LAST_ACTUAL = 66; // MORE_ACTUALS ->
+
+  public static final int NO_PRODUCTION = -1;
+
+  public static final String[] PRODUCTIONS = {
+    "PROGRAM -> Program BLOCK",
+    "BLOCK -> LeftBrace DECLS STMTS RightBrace",
+    "DECLS -> D DECLS",
+    "DECLS ->",
+    "STMTS -> S STMTS",
+    "STMTS ->",
+    "D -> TYPE NAME DECL_REST",
+    "DECL_REST -> FUNHEAD BLOCK",
+    "DECL_REST ->",
+    "TYPE -> Int",
+    "TYPE -> BOOLean",
+    "TYPE -> StringType",
+    "TYPE -> HexType",
+    "FUNHEAD -> LeftParen FORMALS RightParen",
+    "FORMALS -> D MORE_FORMALS",
+    "FORMALS ->",
+    "MORE_FORMALS -> Comma D MORE_FORMALS",
+    "MORE_FORMALS ->",
+    "S -> IF_STATEMENT",
+    "S -> While E BLOCK",
+    "S -> Return E",
+    "S -> BLOCK",
+    "S -> Unless E Then BLOCK",
+    "S -> Select SELECT_BLOCK",
+    "S -> NAME Assign E",
+    "IF_STATEMENT -> If E Then BLOCK ELSE_PART",
+    "ELSE_PART -> Else ELSE_BODY",
+    "ELSE_PART ->",
+    "ELSE_BODY -> IF_STATEMENT",
+    "ELSE_BODY -> BLOCK",
+    "SELECT_BLOCK -> LeftBrace SELECTOR SELECTORS RightBrace",
+    "SELECTORS -> SELECTOR SELECTORS",
+    "SELECTORS ->",
+    "SELECTOR -> LeftBracket E RightBracket Arrow BLOCK",
+    "E -> SE RELATION",
+    "RELATION -> RELOP SE",
+    "RELATION ->",
+    "RELOP -> Equal",
+    "RELOP -> NotEqual",
+    "RELOP -> Less",
+    "RELOP -> LessEqual",
+    "RELOP -> Greater",
+    "RELOP -> GreaterEqual",
+    "SE -> T ADDITIONS",
+    "ADDITIONS -> ADDOP T ADDITIONS",
+    "ADDITIONS ->",
+    "ADDOP -> Plus",
+    "ADDOP -> Minus",
+    "ADDOP -> Or",
+    "T -> F PRODUCTS",
+    "PRODUCTS -> MULTOP F PRODUCTS",
+    "PRODUCTS ->",
+    "MULTOP -> Multiply",
+    "MULTOP -> Divide",
+    "MULTOP -> Modulo",
+    "MULTOP -> And",
+    "F -> LeftParen E RightParen",
+    "F -> INTeger",
+    "F -> StringLit",
+    "F -> HexLit",
+    "F -> NAME CALL_REST",
+    "CALL_REST -> LeftParen ACTUALS RightParen",
+    "CALL_REST ->",
+    "ACTUALS -> E MORE_ACTUALS",
+    "ACTUALS ->",
+    "MORE_ACTUALS -> Comma E MORE_ACTUALS",
+    "MORE_ACTUALS ->",
+    "NAME -> Identifier",
+  };
+
+  public static final int[][] PREDICT =
+      new int[31][Tokens.values().length];
+
+  static {
+    for (int[] row : PREDICT) {
+      Arrays.fill(row, NO_PRODUCTION);
+    }
+
+    entry(PROGRAM, Tokens.Program, 0);
+
+    entry(BLOCK, Tokens.LeftBrace, 1);
+
+    entry(DECLS, Tokens.Int, MORE_DECLS);
+    entry(DECLS, Tokens.BOOLean, MORE_DECLS);
+    entry(DECLS, Tokens.If, NO_DECLS);
+    entry(DECLS, Tokens.While, NO_DECLS);
+    entry(DECLS, Tokens.Return, NO_DECLS);
+    entry(DECLS, Tokens.Unless, NO_DECLS);
+    entry(DECLS, Tokens.Select, NO_DECLS);
+    entry(DECLS, Tokens.StringType, MORE_DECLS);
+    entry(DECLS, Tokens.HexType, MORE_DECLS);
+    entry(DECLS, Tokens.Identifier, NO_DECLS);
+    entry(DECLS, Tokens.LeftBrace, NO_DECLS);
+    entry(DECLS, Tokens.RightBrace, NO_DECLS);
+
+    entry(STMTS, Tokens.If, MORE_STMTS);
+    entry(STMTS, Tokens.While, MORE_STMTS);
+    entry(STMTS, Tokens.Return, MORE_STMTS);
+    entry(STMTS, Tokens.Unless, MORE_STMTS);
+    entry(STMTS, Tokens.Select, MORE_STMTS);
+    entry(STMTS, Tokens.Identifier, MORE_STMTS);
+    entry(STMTS, Tokens.LeftBrace, MORE_STMTS);
+    entry(STMTS, Tokens.RightBrace, NO_STMTS);
+
+    entry(D, Tokens.Int, 6);
+    entry(D, Tokens.BOOLean, 6);
+    entry(D, Tokens.StringType, 6);
+    entry(D, Tokens.HexType, 6);
+
+    entry(DECL_REST, Tokens.Int, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.BOOLean, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.If, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.While, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.Return, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.Unless, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.Select, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.StringType, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.HexType, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.Identifier, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.LeftBrace, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.RightBrace, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.LeftParen, FUNCTION_DECL);
+    entry(DECL_REST, Tokens.RightParen, VARIABLE_DECL);
+    entry(DECL_REST, Tokens.Comma, VARIABLE_DECL);
+
+    entry(TYPE, Tokens.Int, INT_TYPE);
+    entry(TYPE, Tokens.BOOLean, BOOL_TYPE);
+    entry(TYPE, Tokens.StringType, STRING_TYPE);
+    entry(TYPE, Tokens.HexType, HEX_TYPE);
+
+    entry(FUNHEAD, Tokens.LeftParen, 13);
+
+    entry(FORMALS, Tokens.Int, SOME_FORMALS);
+    entry(FORMALS, Tokens.BOOLean, SOME_FORMALS);
+    entry(FORMALS, Tokens.StringType, SOME_FORMALS);
+    entry(FORMALS, Tokens.HexType, SOME_FORMALS);
+    entry(FORMALS, Tokens.RightParen, NO_FORMALS);
+
+    entry(MORE_FORMALS, Tokens.RightParen, LAST_FORMAL);
+    entry(MORE_FORMALS, Tokens.Comma, NEXT_FORMAL);
+
+    entry(S, Tokens.If, IF);
+    entry(S, Tokens.While, WHILE);
+    entry(S, Tokens.Return, RETURN);
+    entry(S, Tokens.Unless, UNLESS);
+    entry(S, Tokens.Select, SELECT);
+    entry(S, Tokens.Identifier, ASSIGN);
+    entry(S, Tokens.LeftBrace, BLOCK_STATEMENT);
+
+    entry(IF_STATEMENT, Tokens.If, 25);
+
+    entry(ELSE_PART, Tokens.If, NO_ELSE);
+    entry(ELSE_PART, Tokens.Else, ELSE);
+    entry(ELSE_PART, Tokens.While, NO_ELSE);
+    entry(ELSE_PART, Tokens.Return, NO_ELSE);
+    entry(ELSE_PART, Tokens.Unless, NO_ELSE);
+    entry(ELSE_PART, Tokens.Select, NO_ELSE);
+    entry(ELSE_PART, Tokens.Identifier, NO_ELSE);
+    entry(ELSE_PART, Tokens.LeftBrace, NO_ELSE);
+    entry(ELSE_PART, Tokens.RightBrace, NO_ELSE);
+
+    entry(ELSE_BODY, Tokens.If, ELSE_IF);
+    entry(ELSE_BODY, Tokens.LeftBrace, ELSE_BLOCK);
+
+    entry(SELECT_BLOCK, Tokens.LeftBrace, 30);
+
+    entry(SELECTORS, Tokens.RightBrace, NO_SELECTORS);
+    entry(SELECTORS, Tokens.LeftBracket, MORE_SELECTORS);
+
+    entry(SELECTOR, Tokens.LeftBracket, 33);
+
+    entry(E, Tokens.StringLit, 34);
+    entry(E, Tokens.HexLit, 34);
+    entry(E, Tokens.Identifier, 34);
+    entry(E, Tokens.INTeger, 34);
+    entry(E, Tokens.LeftParen, 34);
+
+    entry(RELATION, Tokens.If, NO_RELATION);
+    entry(RELATION, Tokens.Then, NO_RELATION);
+    entry(RELATION, Tokens.While, NO_RELATION);
+    entry(RELATION, Tokens.Return, NO_RELATION);
+    entry(RELATION, Tokens.Unless, NO_RELATION);
+    entry(RELATION, Tokens.Select, NO_RELATION);
+    entry(RELATION, Tokens.Identifier, NO_RELATION);
+    entry(RELATION, Tokens.LeftBrace, NO_RELATION);
+    entry(RELATION, Tokens.RightBrace, NO_RELATION);
+    entry(RELATION, Tokens.RightParen, NO_RELATION);
+    entry(RELATION, Tokens.Comma, NO_RELATION);
+    entry(RELATION, Tokens.Equal, RELATION_OP);
+    entry(RELATION, Tokens.NotEqual, RELATION_OP);
+    entry(RELATION, Tokens.Less, RELATION_OP);
+    entry(RELATION, Tokens.LessEqual, RELATION_OP);
+    entry(RELATION, Tokens.Greater, RELATION_OP);
+    entry(RELATION, Tokens.GreaterEqual, RELATION_OP);
+    entry(RELATION, Tokens.RightBracket, NO_RELATION);
+
+    entry(RELOP, Tokens.Equal, 37);
+    entry(RELOP, Tokens.NotEqual, 38);
+    entry(RELOP, Tokens.Less, 39);
+    entry(RELOP, Tokens.LessEqual, 40);
+    entry(RELOP, Tokens.Greater, 41);
+    entry(RELOP, Tokens.GreaterEqual, 42);
+
+    entry(SE, Tokens.StringLit, 43);
+    entry(SE, Tokens.HexLit, 43);
+    entry(SE, Tokens.Identifier, 43);
+    entry(SE, Tokens.INTeger, 43);
+    entry(SE, Tokens.LeftParen, 43);
+
+    entry(ADDITIONS, Tokens.If, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Then, NO_ADDITION);
+    entry(ADDITIONS, Tokens.While, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Return, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Unless, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Select, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Identifier, NO_ADDITION);
+    entry(ADDITIONS, Tokens.LeftBrace, NO_ADDITION);
+    entry(ADDITIONS, Tokens.RightBrace, NO_ADDITION);
+    entry(ADDITIONS, Tokens.RightParen, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Comma, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Equal, NO_ADDITION);
+    entry(ADDITIONS, Tokens.NotEqual, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Less, NO_ADDITION);
+    entry(ADDITIONS, Tokens.LessEqual, NO_ADDITION);
+    entry(ADDITIONS, Tokens.Plus, ADDITION);
+    entry(ADDITIONS, Tokens.Minus, ADDITION);
+    entry(ADDITIONS, Tokens.Or, ADDITION);
+    entry(ADDITIONS, Tokens.Greater, NO_ADDITION);
+    entry(ADDITIONS, Tokens.GreaterEqual, NO_ADDITION);
+    entry(ADDITIONS, Tokens.RightBracket, NO_ADDITION);
+
+    entry(ADDOP, Tokens.Plus, 46);
+    entry(ADDOP, Tokens.Minus, 47);
+    entry(ADDOP, Tokens.Or, 48);
+
+    entry(T, Tokens.StringLit, 49);
+    entry(T, Tokens.HexLit, 49);
+    entry(T, Tokens.Identifier, 49);
+    entry(T, Tokens.INTeger, 49);
+    entry(T, Tokens.LeftParen, 49);
+
+    entry(PRODUCTS, Tokens.If, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Then, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.While, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Return, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Unless, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Select, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Identifier, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.LeftBrace, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.RightBrace, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.RightParen, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Comma, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Equal, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.NotEqual, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Less, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.LessEqual, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Plus, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Minus, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Or, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.And, PRODUCT);
+    entry(PRODUCTS, Tokens.Multiply, PRODUCT);
+    entry(PRODUCTS, Tokens.Divide, PRODUCT);
+    entry(PRODUCTS, Tokens.Greater, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.GreaterEqual, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.RightBracket, NO_PRODUCT);
+    entry(PRODUCTS, Tokens.Modulo, PRODUCT);
+
+    entry(MULTOP, Tokens.And, 55);
+    entry(MULTOP, Tokens.Multiply, 52);
+    entry(MULTOP, Tokens.Divide, 53);
+    entry(MULTOP, Tokens.Modulo, 54);
+
+    entry(F, Tokens.StringLit, STRING_LITERAL);
+    entry(F, Tokens.HexLit, HEX_LITERAL);
+    entry(F, Tokens.Identifier, NAME_OR_CALL);
+    entry(F, Tokens.INTeger, INT_LITERAL);
+    entry(F, Tokens.LeftParen, PARENTHESIZED);
+
+    entry(CALL_REST, Tokens.If, NO_CALL);
+    entry(CALL_REST, Tokens.Then, NO_CALL);
+    entry(CALL_REST, Tokens.While, NO_CALL);
+    entry(CALL_REST, Tokens.Return, NO_CALL);
+    entry(CALL_REST, Tokens.Unless, NO_CALL);
+    entry(CALL_REST, Tokens.Select, NO_CALL);
+    entry(CALL_REST, Tokens.Identifier, NO_CALL);
+    entry(CALL_REST, Tokens.LeftBrace, NO_CALL);
+    entry(CALL_REST, Tokens.RightBrace, NO_CALL);
+    entry(CALL_REST, Tokens.LeftParen, CALL);
+    entry(CALL_REST, Tokens.RightParen, NO_CALL);
+    entry(CALL_REST, Tokens.Comma, NO_CALL);
+    entry(CALL_REST, Tokens.Equal, NO_CALL);
+    entry(CALL_REST, Tokens.NotEqual, NO_CALL);
+    entry(CALL_REST, Tokens.Less, NO_CALL);
+    entry(CALL_REST, Tokens.LessEqual, NO_CALL);
+    entry(CALL_REST, Tokens.Plus, NO_CALL);
+    entry(CALL_REST, Tokens.Minus, NO_CALL);
+    entry(CALL_REST, Tokens.Or, NO_CALL);
+    entry(CALL_REST, Tokens.And, NO_CALL);
+    entry(CALL_REST, Tokens.Multiply, NO_CALL);
+    entry(CALL_REST, Tokens.Divide, NO_CALL);
+    entry(CALL_REST, Tokens.Greater, NO_CALL);
+    entry(CALL_REST, Tokens.GreaterEqual, NO_CALL);
+    entry(CALL_REST, Tokens.RightBracket, NO_CALL);
+    entry(CALL_REST, Tokens.Modulo, NO_CALL);
+
+    entry(ACTUALS, Tokens.StringLit, SOME_ACTUALS);
+    entry(ACTUALS, Tokens.HexLit, SOME_ACTUALS);
+    entry(ACTUALS, Tokens.Identifier, SOME_ACTUALS);
+    entry(ACTUALS, Tokens.INTeger, SOME_ACTUALS);
+    entry(ACTUALS, Tokens.LeftParen, SOME_ACTUALS);
+    entry(ACTUALS, Tokens.RightParen, NO_ACTUALS);
+
+    entry(MORE_ACTUALS, Tokens.RightParen, LAST_ACTUAL);
+    entry(MORE_ACTUALS, Tokens.Comma, NEXT_ACTUAL);
+
+    entry(NAME, Tokens.Identifier, 67);
+  }
+
+  private static void entry(int nonterminal, Tokens kind, int production) {
+    PREDICT[nonterminal][kind.ordinal()] = production;
+  }
+}
@@ -1,15 +1,21 @@
 package parser;
 
-import ast.*;
-
-import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import ast.AST;
+import ast.AstContext;
+import ast.AstMetadata;
+import ast.FlatAst;
+import ast.HashConser;
 import lexer.*;
 
 /**
- * The Parser class performs recursive-descent parsing; as a by-product it will
- * build the <b>Abstract Syntax Tree</b> representation for the source
- * program.
+ * The Parser class performs recursive-descent parsing; as it recognizes
+ * each construct it reports it to a ParseListener. execute() uses an
+ * AstBuilder listener, so as a by-product it will build the <b>Abstract
+ * Syntax Tree</b> representation for the source program; parse() lets
+ * other listeners see the constructs go by without any tree being built.
  *
  * Following is the Grammar we are using:
  *
@@ -71,27 +77,51 @@ import lexer.*;
  *
  * Identifier:
  * NAME -> <id>
+ *
+ * The parse methods follow this grammar, but every choice between
+ * productions is made by a lookup in ParseTable, which GrammarSetup
+ * generates from the LL(1) form of the grammar in parser/setup/grammar.txt
+ *
+ * The parser reads tokens either one at a time from an ILexer or from a
+ * PackedTokens array; either way the current token's kind is kept as its
+ * ordinal so every test of it is an int comparison. Reading a PackedTokens
+ * array creates no Token objects except for a SyntaxError
  */
 public class Parser {
 
+    private static final int EOF = Tokens.EOF.ordinal();
+    private static final Tokens[] KINDS = Tokens.values();
+
+    // the ordinal of the kind of the current token; EOF once the lexer runs
+    // out of tokens
+    private int currentKind;
+    // the current token when reading from lex; unused when reading tokens
     private Token currentToken;
     private ILexer lex;
-    private EnumSet<Tokens> relationalOps = EnumSet.of(
-            Tokens.Equal,
-            Tokens.NotEqual,
-            Tokens.Less,
-            Tokens.LessEqual,
-            Tokens.Greater,
-            Tokens.GreaterEqual);
-    private EnumSet<Tokens> addingOps = EnumSet.of(
-            Tokens.Plus,
-            Tokens.Minus,
-            Tokens.Or);
-    private EnumSet<Tokens> multiplyingOps = EnumSet.of(
-            Tokens.Multiply,
-            Tokens.Divide,
-            Tokens.Modulo,
-            Tokens.And);
+    // the tokens and the index of the current one when reading packed tokens
+    private PackedTokens tokens;
+    private int index;
+    // receives the constructs recognized by the parse methods
+    private ParseListener listener;
+    // when set, rBlock records syntax errors and resynchronizes instead of
+    // giving up on the first one
+    private boolean recovering = false;
+    private List<SyntaxError> syntaxErrors = new ArrayList<SyntaxError>();
+    // true between the parentheses of a function's formals, so recovery
+    // knows to skip to the ')' first
+    private boolean inFormals = false;
+    // numbers the nodes of this compilation's trees
+    private AstContext context = new AstContext();
+    // when set, execute and executeWithRecovery share equal expression
+    // subtrees (see HashConser)
+    private boolean hashConsing = false;
+    // the last tree returned by execute or executeWithRecovery, and its
+    // metadata once getMetadata has been asked for it
+    private AST tree;
+    private AstMetadata metadata;
+    // when set, execute looks for the tree of sourceProgram here first
+    private ParseCache cache;
+    private String sourceProgram;
 
     /**
      * Construct a new Parser;
@@ -109,6 +139,22 @@ public class Parser {
         }
     }
 
+    /**
+     * Construct a Parser whose execute() and executeFlat() first look for
+     * the tree of the source program in cache; the source is only lexed and
+     * parsed (and the tree stored) on a miss, so getLex() is null after a
+     * hit<br>
+     * They are the only parse commands such a parser supports; the others
+     * throw an IllegalStateException
+     *
+     * @param sourceProgram - source file name
+     * @param cache - the cache of trees to use
+     */
+    public Parser(String sourceProgram, ParseCache cache) {
+        this.sourceProgram = sourceProgram;
+        this.cache = cache;
+    }
+
     // Constructor used for testing
     public Parser(ILexer lexer) throws Exception {
         new TokenType();
@@ -116,115 +162,397 @@ public class Parser {
         scan();
     }
 
+    /**
+     * Construct a Parser reading tokens that have already been lexed
+     *
+     * @param tokens - the packed tokens of the source program
+     */
+    public Parser(PackedTokens tokens) {
+        this.tokens = tokens;
+        index = 0;
+        currentKind = tokens.kind(0);
+    }
+
     public Lexer getLex() {
         return (Lexer) lex;
     }
 
+    /**
+     * Turn the optional hash-consing mode on or off: in it the trees built
+     * by execute and executeWithRecovery share structurally equal literal
+     * and operator subtrees (see HashConser); trees from a ParseCache are
+     * never shared
+     */
+    public void setHashConsing(boolean hashConsing) {
+        this.hashConsing = hashConsing;
+    }
+
+    private AstBuilder newBuilder() {
+        return new AstBuilder(context, hashConsing ? new HashConser() : null);
+    }
+
+    /**
+     * @return the AstMetadata of the last tree returned by execute or
+     *         executeWithRecovery, computed by the first call after the parse
+     *         and describing the tree as it was then; null before either is
+     *         run
+     */
+    public AstMetadata getMetadata() {
+        if (metadata == null && tree != null) {
+            metadata = AstMetadata.compute(tree);
+        }
+        return metadata;
+    }
+
+    /**
+     * @return t, now the last tree parsed; its metadata is left for
+     *         getMetadata to compute if it's ever asked for
+     */
+    private AST parsed(AST t) {
+        tree = t;
+        metadata = null;
+        return t;
+    }
+
+    /**
+     * @return the context of the trees built by this parser; later phases
+     *         use it to number any trees they add
+     */
+    public AstContext getContext() {
+        return context;
+    }
+
     /**
      * Execute the parse command
      *
-     * @return the AST for the source program
+     * @return the AST for the source program; see getMetadata for its
+     *         AstMetadata
      * @exception Exception - pass on any type of exception raised
      */
     public AST execute() throws Exception {
+        if (cache != null) {
+            // the caller wants AST nodes, so the cached tree is viewed as one
+            return parsed(executeCached().getTree());
+        }
+        AstBuilder builder = newBuilder();
+        try {
+            parse(builder);
+        } catch (SyntaxError e) {
+            e.print();
+            throw e;
+        }
+        return parsed(builder.getTree());
+    }
+
+    /**
+     * @return the tree of the source program from the cache, or parsed and
+     *         stored there on a miss; no AST nodes are made
+     */
+    private FlatAst executeCached() throws Exception {
+        String key = ParseCache.key(Files.readAllBytes(Paths.get(sourceProgram)));
+        FlatAst tree = cache.lookup(key);
+
+        if (tree == null) {
+            lex = new Lexer(sourceProgram);
+            scan();
+            tree = parseFlat();
+            cache.store(key, tree);
+        } else {
+            // trees added by later phases are numbered after the cached ones
+            context.reserve(tree.maxNodeNum());
+        }
+        return tree;
+    }
+
+    /**
+     * Execute the parse command building a FlatAst instead of an AST; a
+     * parser made with a ParseCache returns the cached tree as it was
+     * loaded, without making any AST nodes
+     *
+     * @return the flat tree for the source program
+     * @exception Exception - pass on any type of exception raised
+     */
+    public FlatAst executeFlat() throws Exception {
+        if (cache != null) {
+            return executeCached();
+        }
+        return parseFlat();
+    }
+
+    private FlatAst parseFlat() throws Exception {
+        FlatAstBuilder builder = new FlatAstBuilder(context);
         try {
-            return rProgram();
+            parse(builder);
         } catch (SyntaxError e) {
             e.print();
             throw e;
         }
+        return builder.getTree();
+    }
+
+    /**
+     * Parse the source program, reporting each construct to the listener;
+     * no AST is built unless the listener builds one
+     *
+     * @param listener receives the parse events
+     * @exception SyntaxError - thrown for the first syntax error
+     */
+    public void parse(ParseListener listener) throws SyntaxError {
+        checkTokens();
+        this.listener = listener;
+        rProgram();
+    }
+
+    /**
+     * Execute the parse command in panic-mode recovery: every syntax error is
+     * recorded (see getSyntaxErrors) and the parser resynchronizes on the
+     * next '}', statement keyword or declaration type in the enclosing block
+     *
+     * @return a best-effort AST for the source program; statements and
+     *         declarations containing errors are left out of it
+     */
+    public AST executeWithRecovery() {
+        AstBuilder builder = newBuilder();
+        parseWithRecovery(builder);
+        return parsed(builder.getTree());
+    }
+
+    /**
+     * Parse the source program in panic-mode recovery (see
+     * executeWithRecovery); the listener is told about each dropped
+     * declaration or statement through ParseListener.recovered
+     *
+     * @param listener receives the parse events
+     */
+    public void parseWithRecovery(ParseListener listener) {
+        checkTokens();
+        this.listener = listener;
+        recovering = true;
+        inFormals = false;
+        syntaxErrors.clear();
+        try {
+            rProgram();
+        } catch (SyntaxError e) {
+            // rProgram never throws while recovering, so this is unreachable
+            syntaxErrors.add(e);
+        } finally {
+            recovering = false;
+        }
+    }
+
+    /**
+     * a Parser made with a ParseCache has no tokens to read until its
+     * execute() or executeFlat() misses the cache
+     */
+    private void checkTokens() {
+        if (lex == null && tokens == null) {
+            throw new IllegalStateException("a Parser made with a ParseCache only supports execute() and executeFlat()");
+        }
+    }
+
+    /**
+     * @return the syntax errors recorded by the last recovering parse,
+     *         in source order
+     */
+    public List<SyntaxError> getSyntaxErrors() {
+        return syntaxErrors;
     }
 
     /**
      * Program:
      * PROGRAM -> 'program' BLOCK
      *
-     * @return the program tree
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rProgram() throws SyntaxError {
-        // note that rProgram actually returns a ProgramTree; we use the
-        // principle of substitutability to indicate it returns an AST
-        AST t = new ProgramTree();
-        expect(Tokens.Program);
-        t.addKid(rBlock());
-        return t;
+    public void rProgram() throws SyntaxError {
+        listener.enterProgram();
+        expectOrInsert(Tokens.Program);
+        rBlock(false);
+        listener.exitProgram();
+
+        if (!atEnd()) {
+            SyntaxError e = new SyntaxError(currentToken(), "Input after the end of the program");
+            if (!recovering) {
+                throw e;
+            }
+            syntaxErrors.add(e);
+        }
     }
 
     /**
      * Selector:
      * SELECTOR -> '{' E '}' '->' BLOCK
-     * @return selector tree
      * @exception SyntaxError - thrown for any syntax error e.g. an expected
      *                        expression isn't found
      */
-    public AST rSelector() throws SyntaxError {
+    public void rSelector() throws SyntaxError {
         expect(Tokens.LeftBracket);
-        AST t = new SelectorTree();
-        t.addKid(rExpr());
+        listener.enterSelector();
+        rExpr();
         expect(Tokens.RightBracket);
         expect(Tokens.Arrow);
-        t.addKid(rBlock());
-        return t;
+        rBlock();
+        listener.exitSelector();
     }
     /** Select blocks SELECT_BLOCK -> '{' SELECTOR+ '}'
-     *  @return select block tree
      * @exception SyntaxError - thrown for any syntax error e.g. an expected
      *                        left brace isn't found
      */
-    public AST rSelectBlock() throws SyntaxError {
+    public void rSelectBlock() throws SyntaxError {
         expect(Tokens.LeftBrace);
         //There must be at least one selector
-        if (!isNextTok(Tokens.LeftBracket)) {
-            throw new SyntaxError(currentToken, Tokens.LeftBracket);
+        if (predict(ParseTable.SELECTORS) != ParseTable.MORE_SELECTORS) {
+            throw new SyntaxError(currentToken(), Tokens.LeftBracket);
         }
-        AST t = new SelectBlockTree();
-        while (isNextTok(Tokens.LeftBracket)) {
-            t.addKid(rSelector());
+        listener.enterSelectBlock();
+        while (predict(ParseTable.SELECTORS) == ParseTable.MORE_SELECTORS) {
+            rSelector();
         }
         expect(Tokens.RightBrace);
-        return t;
+        listener.exitSelectBlock();
     }
 
     /**
      * Blocks:
      * BLOCK -> '{' D* S* '}'
      *
-     * @return block tree
      * @exception SyntaxError - thrown for any syntax error e.g. an expected
      *                        left brace isn't found
      */
-    public AST rBlock() throws SyntaxError {
-        expect(Tokens.LeftBrace);
-        AST t = new BlockTree();
+    public void rBlock() throws SyntaxError {
+        rBlock(true);
+    }
+
+    /**
+     * @param enclosed is false for the program's block, which no other
+     *                 block encloses
+     */
+    private void rBlock(boolean enclosed) throws SyntaxError {
+        if (recovering && enclosed && !isNextTok(Tokens.LeftBrace) && startingStatement()) {
+            // a '{' assumed here would take in the statements of the
+            // enclosing block up to its '}'
+            throw new SyntaxError(currentToken(), Tokens.LeftBrace);
+        }
+        expectOrInsert(Tokens.LeftBrace);
+        listener.enterBlock();
+
+        if (recovering) {
+            rRecoveringBlockBody();
+            listener.exitBlock();
+            return;
+        }
 
         // Get declarations until there are no more matches for declarations
         while (startingDecl()) {
-            t.addKid(rDecl());
+            rDecl();
         }
 
         // Get statements until there are no more matches for statements
         while (startingStatement()) {
-            t.addKid(rStatement());
+            rStatement();
         }
 
         expect(Tokens.RightBrace);
+        listener.exitBlock();
+    }
 
-        return t;
+    /**
+     * Parse the declarations and statements of a block while recovering;
+     * a declaration or statement containing a syntax error is recorded and
+     * dropped, and the tokens up to the next synchronizing token are skipped
+     * (for a declaration, the rest of its header and its body too)
+     */
+    private void rRecoveringBlockBody() throws SyntaxError {
+        boolean seenStatement = false;
+
+        while (!isNextTok(Tokens.RightBrace) && !atEnd()) {
+            boolean inDecl = false;
+            try {
+                if (startingDecl()) {
+                    inDecl = true;
+                    if (seenStatement) {
+                        // declarations must precede statements; keep it anyway
+                        syntaxErrors.add(new SyntaxError(currentToken(), "Declaration after a statement"));
+                    }
+                    rDecl();
+                } else if (startingStatement()) {
+                    seenStatement = true;
+                    rStatement();
+                } else {
+                    SyntaxError e = new SyntaxError(currentToken(), Tokens.RightBrace);
+                    // the offending token can't be a synchronizing token, so
+                    // skipping it guarantees progress
+                    scan();
+                    throw e;
+                }
+            } catch (SyntaxError e) {
+                syntaxErrors.add(e);
+                listener.recovered(e);
+                if (inDecl) {
+                    skipDeclaration();
+                } else {
+                    synchronize();
+                }
+            }
+        }
+
+        expectOrInsert(Tokens.RightBrace);
+    }
+
+    /**
+     * skip tokens until one that can restart the parse of a block:
+     * '}', a statement keyword/identifier, a declaration type or the end
+     */
+    private void synchronize() {
+        while (!atEnd() && !isNextTok(Tokens.RightBrace) && !startingDecl() && !startingStatement()) {
+            scan();
+        }
+    }
+
+    /**
+     * skip the rest of a declaration that failed: what is left of its
+     * formals, then up to a synchronizing token and, if that is a '{', the
+     * function body it opens; a nested function's errors are handled inside
+     * its body, so a declaration only fails in its header
+     */
+    private void skipDeclaration() {
+        if (inFormals) {
+            inFormals = false;
+            while (!atEnd() && !isNextTok(Tokens.RightParen) && !isNextTok(Tokens.LeftBrace)
+                    && !isNextTok(Tokens.RightBrace)) {
+                scan();
+            }
+            if (isNextTok(Tokens.RightParen)) {
+                scan();
+            }
+        }
+        synchronize();
+
+        if (isNextTok(Tokens.LeftBrace)) {
+            // skip the body as a balanced '{' ... '}' so its declarations
+            // aren't taken for ones following the block's statements
+            int depth = 0;
+            do {
+                if (isNextTok(Tokens.LeftBrace)) {
+                    depth++;
+                } else if (isNextTok(Tokens.RightBrace)) {
+                    depth--;
+                }
+                scan();
+            } while (depth > 0 && !atEnd());
+        }
+    }
+
+    private boolean atEnd() {
+        return currentKind == EOF;
     }
 
     boolean startingDecl() {
-        return isNextTok(Tokens.Int) || isNextTok(Tokens.BOOLean) || isNextTok(Tokens.StringType) || isNextTok(Tokens.HexType);
+        return predict(ParseTable.DECLS) == ParseTable.MORE_DECLS;
     }
 
     boolean startingStatement() {
-        return (isNextTok(Tokens.If) ||
-                isNextTok(Tokens.While) ||
-                isNextTok(Tokens.Return) ||
-                isNextTok(Tokens.LeftBrace) ||
-                isNextTok(Tokens.Identifier)) ||
-                isNextTok(Tokens.Unless) ||
-                isNextTok(Tokens.Select);
+        return predict(ParseTable.STMTS) == ParseTable.MORE_STMTS;
     }
 
     /**
@@ -233,25 +561,22 @@ public class Parser {
      * Function Declaration:
      * D -> TYPE NAME FUNHEAD BLOCK
      *
-     * @return either the decl tree or the functionDecl tree
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rDecl() throws SyntaxError {
-        AST t, t1;
-        t = rType();
-        t1 = rName();
+    public void rDecl() throws SyntaxError {
+        Tokens type = rType();
+        Symbol name = rName();
 
         // A LeftParen indicates that this must be a function
         // (this is the beginning of the formal parameters list)
-        if (isNextTok(Tokens.LeftParen)) {
-            t = (new FunctionDeclTree()).addKid(t).addKid(t1);
-            t.addKid(rFuncHead());
-            t.addKid(rBlock());
-            return t;
+        if (predict(ParseTable.DECL_REST) == ParseTable.FUNCTION_DECL) {
+            listener.enterFunctionDecl(type, name);
+            rFuncHead();
+            rBlock();
+            listener.exitFunctionDecl();
+            return;
         }
-        t = (new DeclTree()).addKid(t).addKid(t1);
-
-        return t;
+        listener.decl(type, name);
     }
 
     /**
@@ -261,27 +586,21 @@ public class Parser {
      * TYPE -> 'string'
      * TYPE -> 'hex'
      *
-     * @return the intType, boolType, stringType or hexType tree
+     * @return the kind of the type token: Int, BOOLean, StringType or HexType
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rType() throws SyntaxError {
-        AST t;
-        if (isNextTok(Tokens.Int)) {
-            t = new IntTypeTree();
-            scan();
-        } else if (isNextTok(Tokens.BOOLean)){
-            expect(Tokens.BOOLean);
-            t = new BoolTypeTree();
-        }
-        else if (isNextTok(Tokens.HexType)) {
-            t = new HexTypeTree();
-            scan();
-        }
-        else {
-            t = new StringTypeTree();
-            scan();
+    public Tokens rType() throws SyntaxError {
+        switch (predict(ParseTable.TYPE)) {
+            case ParseTable.INT_TYPE:
+            case ParseTable.BOOL_TYPE:
+            case ParseTable.STRING_TYPE:
+            case ParseTable.HEX_TYPE:
+                Tokens type = KINDS[currentKind];
+                scan();
+                return type;
+            default:
+                throw new SyntaxError(currentToken(), Tokens.Int);
         }
-        return t;
     }
 
     /**
@@ -291,27 +610,24 @@ public class Parser {
      * note a funchead is a list of zero or more decl's,
      * separated by commas, all in parens
      *
-     * @return the formals tree describing this list of formals
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rFuncHead() throws SyntaxError {
-        AST t = new FormalsTree();
+    public void rFuncHead() throws SyntaxError {
+        listener.enterFormals();
         expect(Tokens.LeftParen);
+        inFormals = true;
 
-        if (!isNextTok(Tokens.RightParen)) {
-            do {
-                t.addKid(rDecl());
-                if (isNextTok(Tokens.Comma)) {
-                    scan();
-                } else {
-                    break;
-                }
-            } while (true);
+        if (predict(ParseTable.FORMALS) != ParseTable.NO_FORMALS) {
+            rDecl();
+            while (predict(ParseTable.MORE_FORMALS) == ParseTable.NEXT_FORMAL) {
+                scan();
+                rDecl();
+            }
         }
 
         expect(Tokens.RightParen);
-
-        return t;
+        inFormals = false;
+        listener.exitFormals();
     }
 
     /**
@@ -323,78 +639,80 @@ public class Parser {
      * S -> BLOCK <br>
      * S -> NAME '=' E <br>
      *
-     * @return the tree corresponding to the statement found
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rStatement() throws SyntaxError {
-        AST t;
-
-        if (isNextTok(Tokens.If)) {
-            scan();
-            t = new IfTree();
+    public void rStatement() throws SyntaxError {
+        switch (predict(ParseTable.S)) {
+            case ParseTable.IF:
+                scan();
+                listener.enterIf();
 
-            t.addKid(rExpr());
+                rExpr();
 
-            expect(Tokens.Then);
-            t.addKid(rBlock());
+                expect(Tokens.Then);
+                rBlock();
 
-            //for just adding support for if and else and not else if then do following:
-//            if (isNextTok(Tokens.Else)) { // check if there is an else block
-//                scan();
-//                t.addKid(rBlock());
-//            }
+                //If the next token is an else block only then it will scan and add the next token
+                if (predict(ParseTable.ELSE_PART) == ParseTable.ELSE) {
+                    scan();
+                    if (predict(ParseTable.ELSE_BODY) == ParseTable.ELSE_IF) {
+                        rStatement(); // recursive call for if-else-if block
+                    } else {
+                        rBlock(); // else block
+                    }
+                }
+                listener.exitIf();
+                return;
 
-            //If the next token is an else block only then it will scan and add the next token
-            if (isNextTok(Tokens.Else)) {
+            case ParseTable.WHILE:
                 scan();
-                if (isNextTok(Tokens.If)) {
-                    t.addKid(rStatement()); // recursive call for if-else-if block
-                } else {
-                    t.addKid(rBlock()); // else block
-                }
-            }
-            return t;
+                listener.enterWhile();
 
-        } else if (isNextTok(Tokens.While)) {
-            scan();
-            t = new WhileTree();
+                rExpr();
+                rBlock();
 
-            t.addKid(rExpr());
-            t.addKid(rBlock());
+                listener.exitWhile();
+                return;
 
-            return t;
-        } else if (isNextTok(Tokens.Return)) {
-            scan();
-            t = new ReturnTree();
+            case ParseTable.RETURN:
+                scan();
+                listener.enterReturn();
 
-            t.addKid(rExpr());
+                rExpr();
 
-            return t;
-        } else if (isNextTok(Tokens.LeftBrace)) {
-            return rBlock();
-        } else if (isNextTok(Tokens.Unless)) {
-            scan();
-            t = new UnlessTree();
-            t.addKid(rExpr());
-            expect(Tokens.Then);
-            t.addKid(rBlock());
-            return t;
-        } else if (isNextTok(Tokens.Select)) {
-            scan();
-            t = new SelectTree();
-//            t.addKid(rName());
-            t.addKid(rSelectBlock());
-            return t;
-        }
+                listener.exitReturn();
+                return;
+
+            case ParseTable.BLOCK_STATEMENT:
+                rBlock();
+                return;
 
-        t = rName();
-        t = (new AssignTree()).addKid(t);
+            case ParseTable.UNLESS:
+                scan();
+                listener.enterUnless();
+                rExpr();
+                expect(Tokens.Then);
+                rBlock();
+                listener.exitUnless();
+                return;
+
+            case ParseTable.SELECT:
+                scan();
+                listener.enterSelect();
+                rSelectBlock();
+                listener.exitSelect();
+                return;
 
-        expect(Tokens.Assign);
+            default:
+                // ParseTable.ASSIGN; rName reports anything else
+                listener.enterAssign(rName());
 
-        t.addKid(rExpr());
+                expect(Tokens.Assign);
 
-        return t;
+                rExpr();
+
+                listener.exitAssign();
+        }
     }
 
     /**
@@ -407,21 +725,20 @@ public class Parser {
      * E -> SE > SE
      * E -> SE >= SE
      *
-     * @return the tree corresponding to the expression
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rExpr() throws SyntaxError {
-        AST t, kid = rSimpleExpr();
+    public void rExpr() throws SyntaxError {
+        rSimpleExpr();
 
-        t = getRelationTree();
-        if (t == null) {
-            return kid;
+        if (predict(ParseTable.RELATION) != ParseTable.RELATION_OP) {
+            return;
         }
 
-        t.addKid(kid);
-        t.addKid(rSimpleExpr());
-
-        return t;
+        // the simple expression just reported is the left operand
+        listener.enterRelOp(currentSymbol());
+        scan();
+        rSimpleExpr();
+        listener.exitRelOp();
     }
 
     /**
@@ -434,20 +751,17 @@ public class Parser {
      * This rule indicates we should pick up as many Terms as
      * possible; the Terms will be left associative
      *
-     * @return the tree corresponding to the adding expression
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rSimpleExpr() throws SyntaxError {
-        AST t, kid = rTerm();
+    public void rSimpleExpr() throws SyntaxError {
+        rTerm();
 
-        while ((t = getAddOperTree()) != null) {
-            t.addKid(kid);
-            t.addKid(rTerm());
-
-            kid = t;
+        while (predict(ParseTable.ADDITIONS) == ParseTable.ADDITION) {
+            listener.enterAddOp(currentSymbol());
+            scan();
+            rTerm();
+            listener.exitAddOp();
         }
-
-        return kid;
     }
 
     /**
@@ -461,20 +775,17 @@ public class Parser {
      * This rule indicates we should pick up as many Factors as
      * possible; the Factors will be left associative
      *
-     * @return the tree corresponding to the multiplying expression
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rTerm() throws SyntaxError {
-        AST t, kid = rFactor();
-
-        while ((t = getMultOperTree()) != null) {
-            t.addKid(kid);
-            t.addKid(rFactor());
+    public void rTerm() throws SyntaxError {
+        rFactor();
 
-            kid = t;
+        while (predict(ParseTable.PRODUCTS) == ParseTable.PRODUCT) {
+            listener.enterMultOp(currentSymbol());
+            scan();
+            rFactor();
+            listener.exitMultOp();
         }
-
-        return kid;
     }
 
     /**
@@ -486,124 +797,97 @@ public class Parser {
      * F -> <hex>
      * F -> NAME '(' (E list ',')? ')'
      *
-     * @return the tree corresponding to the factor expression
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rFactor() throws SyntaxError {
-        AST t;
-
-        // -> (e)
-        if (isNextTok(Tokens.LeftParen)) {
-            scan();
-            t = rExpr();
-            expect(Tokens.RightParen);
-            return t;
-        }
-        // -> <int>
-        else if (isNextTok(Tokens.INTeger)) {
-            t = new IntTree(currentToken);
-            scan();
-            return t;
-        }
-        // -> <string>
-        else if (isNextTok(Tokens.StringLit)) {
-            t = new StringTree(currentToken);
-            scan();
-            return t;
-        }
-        // -> <hex>
-        else if (isNextTok(Tokens.HexLit)) {
-            t = new HexTree(currentToken);
-            scan();
-            return t;
+    public void rFactor() throws SyntaxError {
+        switch (predict(ParseTable.F)) {
+            // -> (e)
+            case ParseTable.PARENTHESIZED:
+                scan();
+                rExpr();
+                expect(Tokens.RightParen);
+                return;
+            // -> <int>
+            case ParseTable.INT_LITERAL:
+                listener.intLit(currentSymbol());
+                scan();
+                return;
+            // -> <string>
+            case ParseTable.STRING_LITERAL:
+                listener.stringLit(currentSymbol());
+                scan();
+                return;
+            // -> <hex>
+            case ParseTable.HEX_LITERAL:
+                listener.hexLit(currentSymbol());
+                scan();
+                return;
+            default:
+                break;
         }
 
-        t = rName();
+        Symbol name = rName();
         // -> name (not a function call)
-        if (!isNextTok(Tokens.LeftParen)) {
-            return t;
+        if (predict(ParseTable.CALL_REST) != ParseTable.CALL) {
+            listener.id(name);
+            return;
         }
 
         // -> name '(' (e list ',')? ) ==> call
         scan();
-        t = (new CallTree()).addKid(t);
+        listener.enterCall(name);
 
-        if (!isNextTok(Tokens.RightParen)) {
-            do {
-                t.addKid(rExpr());
-                if (isNextTok(Tokens.Comma)) {
-                    scan();
-                } else {
-                    break;
-                }
-            } while (true);
+        if (predict(ParseTable.ACTUALS) != ParseTable.NO_ACTUALS) {
+            rExpr();
+            while (predict(ParseTable.MORE_ACTUALS) == ParseTable.NEXT_ACTUAL) {
+                scan();
+                rExpr();
+            }
         }
         expect(Tokens.RightParen);
 
-        return t;
+        listener.exitCall();
     }
 
     /**
      * Identifier:
      * NAME -> <id>
      *
-     * @return the id tree
+     * @return the symbol of the identifier
      * @exception SyntaxError - thrown for any syntax error
      */
-    public AST rName() throws SyntaxError {
-        AST t;
-
+    public Symbol rName() throws SyntaxError {
         if (isNextTok(Tokens.Identifier)) {
-            t = new IdTree(currentToken);
+            Symbol name = currentSymbol();
             scan();
 
-            return t;
+            return name;
         }
-        throw new SyntaxError(currentToken, Tokens.Identifier);
+        throw new SyntaxError(currentToken(), Tokens.Identifier);
     }
 
-    // build tree with current token's relation
-    private AST getRelationTree() {
-        Tokens kind = currentToken.getKind();
-
-        if (relationalOps.contains(kind)) {
-            AST t = new RelOpTree(currentToken);
-            scan();
-
-            return t;
-        } else {
-            return null;
-        }
+    /**
+     * @return the production ParseTable predicts for expanding the given
+     *         nonterminal with the current token, or ParseTable.NO_PRODUCTION
+     */
+    private int predict(int nonterminal) {
+        return ParseTable.PREDICT[nonterminal][currentKind];
     }
 
-    private AST getAddOperTree() {
-        Tokens kind = currentToken.getKind();
-
-        if (addingOps.contains(kind)) {
-            AST t = new AddOpTree(currentToken);
-            scan();
-
-            return t;
-        } else {
-            return null;
-        }
+    private boolean isNextTok(Tokens kind) {
+        return currentKind == kind.ordinal();
     }
 
-    private AST getMultOperTree() {
-        Tokens kind = currentToken.getKind();
-
-        if (multiplyingOps.contains(kind)) {
-            AST t = new MultOpTree(currentToken);
-            scan();
-
-            return t;
-        } else {
-            return null;
-        }
+    private Symbol currentSymbol() {
+        return tokens != null ? tokens.symbol(index) : currentToken.getSymbol();
     }
 
-    private boolean isNextTok(Tokens kind) {
-        return currentToken != null && currentToken.getKind() == kind;
+    /**
+     * @return the current token for a SyntaxError; only then is a Token
+     *         created for a packed token
+     */
+    private Token currentToken() {
+        return tokens != null ? tokens.token(index) : currentToken;
     }
 
     private void expect(Tokens kind) throws SyntaxError {
@@ -612,10 +896,27 @@ public class Parser {
 
             return;
         }
-        throw new SyntaxError(currentToken, kind);
+        throw new SyntaxError(currentToken(), kind);
+    }
+
+    /**
+     * Like expect, but while recovering a missing token is recorded and
+     * assumed to be present so the parse can carry on
+     */
+    private void expectOrInsert(Tokens kind) throws SyntaxError {
+        if (recovering && !isNextTok(kind)) {
+            syntaxErrors.add(new SyntaxError(currentToken(), kind));
+            return;
+        }
+        expect(kind);
     }
 
     private void scan() {
+        if (tokens != null) {
+            currentKind = tokens.kind(++index);
+            return;
+        }
         currentToken = lex.nextToken();
+        currentKind = currentToken == null ? EOF : currentToken.getKind().ordinal();
     }
-}
\ No newline at end of file
+}
@@ -11,6 +11,8 @@ public class SyntaxError extends Exception {
     private static final long serialVersionUID = 1L;
     private final Token tokenFound;
     private final Tokens kindExpected;
+    // for an error no single expected token describes
+    private final String message;
 
     /**
      * record the syntax error just encountered
@@ -22,15 +24,48 @@ public class SyntaxError extends Exception {
     public SyntaxError(Token tokenFound, Tokens kindExpected) {
         this.tokenFound = tokenFound;
         this.kindExpected = kindExpected;
+        this.message = null;
+    }
+
+    /**
+     * record a syntax error that no expected token describes, such as a
+     * declaration following a statement
+     *
+     * @param tokenFound is the token just found by the parser
+     * @param message    says what is wrong
+     */
+    public SyntaxError(Token tokenFound, String message) {
+        this.tokenFound = tokenFound;
+        this.kindExpected = null;
+        this.message = message;
+    }
+
+    /**
+     * @return the token the parser found; its line number and positions
+     *         locate the error (null if the token stream ended early)
+     */
+    public Token getTokenFound() {
+        return tokenFound;
+    }
+
+    /**
+     * @return the token kind expected, or null for an error built with a
+     *         message
+     */
+    public Tokens getKindExpected() {
+        return kindExpected;
     }
 
     void print() {
-        System.out.println("Expected: " + kindExpected);
+        System.out.println(message != null ? message : "Expected: " + kindExpected);
         return;
     }
 
     @Override
     public String toString() {
+        if (message != null) {
+            return String.format("%s, found [%s]", message, tokenFound);
+        }
         return String.format("Expected [%s], found [%s]", kindExpected, tokenFound);
     }
 }
@@ -0,0 +1,326 @@
+package parser;
+
+import ast.NodeKind;
+import java.util.Arrays;
+import lexer.Symbol;
+import lexer.Tokens;
+
+/**
+ * A TreeBuilder listener turns the parse events into a tree, leaving only
+ * the making of nodes to its subclass (AstBuilder makes AST objects,
+ * FlatAstBuilder the nodes of a FlatAst); here a node is just the int
+ * handle the subclass gave it<br>
+ * Nodes are made in the order the events arrive so they are numbered as the
+ * recursive-descent parser always numbered them<br>
+ * Finished nodes wait on the values stack until the construct they belong
+ * to exits; each open construct remembers how many values were waiting when
+ * it was entered, and all values above that mark become its kids
+ */
+abstract class TreeBuilder implements ParseListener {
+
+    // finished nodes waiting for the construct they belong to
+    private int[] values = new int[64];
+    private int valueCount = 0;
+    // open constructs, their kinds and how many values were waiting when
+    // each was entered
+    private int[] open = new int[64];
+    private NodeKind[] openKinds = new NodeKind[64];
+    private int[] marks = new int[64];
+    private int openCount = 0;
+
+    /**
+     * @param symbol is the node's Symbol, or null
+     * @return the handle of a new node of the given kind, with no kids yet
+     */
+    protected abstract int node(NodeKind kind, Symbol symbol);
+
+    /**
+     * make the nodes kids[from] ... kids[to - 1] the kids of n, in order; n
+     * is finished, so a subclass may have it stand for an equal node it
+     * finished before (see HashConser)
+     */
+    protected abstract void finish(int n, int[] kids, int from, int to);
+
+    /**
+     * the program tree is finished; root is its root
+     */
+    protected abstract void program(int root);
+
+    private int node(NodeKind kind) {
+        return node(kind, null);
+    }
+
+    private void push(int n) {
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, 2 * valueCount);
+        }
+        values[valueCount++] = n;
+    }
+
+    /**
+     * push n as a finished node with no kids
+     */
+    private void leaf(int n) {
+        finish(n, values, valueCount, valueCount);
+        push(n);
+    }
+
+    private void enter(NodeKind kind, int n, int mark) {
+        if (openCount == open.length) {
+            open = Arrays.copyOf(open, 2 * openCount);
+            openKinds = Arrays.copyOf(openKinds, 2 * openCount);
+            marks = Arrays.copyOf(marks, 2 * openCount);
+        }
+        open[openCount] = n;
+        openKinds[openCount] = kind;
+        marks[openCount++] = mark;
+    }
+
+    private void enter(NodeKind kind) {
+        enter(kind, node(kind), valueCount);
+    }
+
+    /**
+     * enter an operator; its left operand is the last finished value
+     */
+    private void enterOperator(NodeKind kind, Symbol op) {
+        enter(kind, node(kind, op), valueCount - 1);
+    }
+
+    private int exit() {
+        int n = open[--openCount];
+        int mark = marks[openCount];
+
+        finish(n, values, mark, valueCount);
+        valueCount = mark;
+        push(n);
+
+        return n;
+    }
+
+    private int typeTree(Tokens type) {
+        switch (type) {
+            case Int:
+                return node(NodeKind.IntType);
+            case BOOLean:
+                return node(NodeKind.BoolType);
+            case HexType:
+                return node(NodeKind.HexType);
+            default:
+                return node(NodeKind.StringType);
+        }
+    }
+
+    @Override
+    public void enterProgram() {
+        enter(NodeKind.Program);
+    }
+
+    @Override
+    public void exitProgram() {
+        program(exit());
+    }
+
+    @Override
+    public void enterBlock() {
+        enter(NodeKind.Block);
+    }
+
+    @Override
+    public void exitBlock() {
+        exit();
+    }
+
+    @Override
+    public void decl(Tokens type, Symbol name) {
+        int typeTree = typeTree(type), id = node(NodeKind.Id, name);
+        enter(NodeKind.Decl);
+        leaf(typeTree);
+        leaf(id);
+        exit();
+    }
+
+    @Override
+    public void enterFunctionDecl(Tokens type, Symbol name) {
+        int typeTree = typeTree(type), id = node(NodeKind.Id, name);
+        enter(NodeKind.FunctionDecl);
+        leaf(typeTree);
+        leaf(id);
+    }
+
+    @Override
+    public void exitFunctionDecl() {
+        exit();
+    }
+
+    @Override
+    public void enterFormals() {
+        enter(NodeKind.Formals);
+    }
+
+    @Override
+    public void exitFormals() {
+        exit();
+    }
+
+    @Override
+    public void enterIf() {
+        enter(NodeKind.If);
+    }
+
+    @Override
+    public void exitIf() {
+        exit();
+    }
+
+    @Override
+    public void enterWhile() {
+        enter(NodeKind.While);
+    }
+
+    @Override
+    public void exitWhile() {
+        exit();
+    }
+
+    @Override
+    public void enterReturn() {
+        enter(NodeKind.Return);
+    }
+
+    @Override
+    public void exitReturn() {
+        exit();
+    }
+
+    @Override
+    public void enterUnless() {
+        enter(NodeKind.Unless);
+    }
+
+    @Override
+    public void exitUnless() {
+        exit();
+    }
+
+    @Override
+    public void enterSelect() {
+        enter(NodeKind.Select);
+    }
+
+    @Override
+    public void exitSelect() {
+        exit();
+    }
+
+    @Override
+    public void enterSelectBlock() {
+        enter(NodeKind.SelectBlock);
+    }
+
+    @Override
+    public void exitSelectBlock() {
+        exit();
+    }
+
+    @Override
+    public void enterSelector() {
+        enter(NodeKind.Selector);
+    }
+
+    @Override
+    public void exitSelector() {
+        exit();
+    }
+
+    @Override
+    public void enterAssign(Symbol name) {
+        int id = node(NodeKind.Id, name);
+        enter(NodeKind.Assign);
+        leaf(id);
+    }
+
+    @Override
+    public void exitAssign() {
+        exit();
+    }
+
+    @Override
+    public void enterCall(Symbol name) {
+        int id = node(NodeKind.Id, name);
+        enter(NodeKind.Call);
+        leaf(id);
+    }
+
+    @Override
+    public void exitCall() {
+        exit();
+    }
+
+    @Override
+    public void id(Symbol name) {
+        leaf(node(NodeKind.Id, name));
+    }
+
+    @Override
+    public void intLit(Symbol value) {
+        leaf(node(NodeKind.IntLit, value));
+    }
+
+    @Override
+    public void stringLit(Symbol value) {
+        leaf(node(NodeKind.StringLit, value));
+    }
+
+    @Override
+    public void hexLit(Symbol value) {
+        leaf(node(NodeKind.HexLit, value));
+    }
+
+    @Override
+    public void enterRelOp(Symbol op) {
+        enterOperator(NodeKind.RelOp, op);
+    }
+
+    @Override
+    public void exitRelOp() {
+        exit();
+    }
+
+    @Override
+    public void enterAddOp(Symbol op) {
+        enterOperator(NodeKind.AddOp, op);
+    }
+
+    @Override
+    public void exitAddOp() {
+        exit();
+    }
+
+    @Override
+    public void enterMultOp(Symbol op) {
+        enterOperator(NodeKind.MultOp, op);
+    }
+
+    @Override
+    public void exitMultOp() {
+        exit();
+    }
+
+    /**
+     * drop the constructs left open above the innermost open block along
+     * with any values they collected; the dropped nodes are left out of the
+     * finished tree
+     */
+    @Override
+    public void recovered(SyntaxError e) {
+        int mark = -1;
+
+        while (openCount > 0 && openKinds[openCount - 1] != NodeKind.Block) {
+            mark = marks[--openCount];
+        }
+        if (mark != -1) {
+            valueCount = mark;
+        }
+    }
+}
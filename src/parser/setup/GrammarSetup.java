@@ -0,0 +1,300 @@
+package parser.setup;
+
+import java.util.*;
+import java.io.*;
+
+import lexer.Tokens;
+
+/**
+ * GrammarSetup class is used to read the LL(1) grammar from file
+ * <i>grammar.txt</i>, compute the FIRST and FOLLOW sets of its
+ * nonterminals and automatically build the class/file
+ * <i>ParseTable.java</i> holding the prediction table used by the Parser<br>
+ * Therefore, if there is any change to the grammar then we only need to
+ * modify the file <i>grammar.txt</i> and run this program again (after
+ * TokenSetup, if the tokens changed as well) before using the compiler
+ */
+public class GrammarSetup {
+    // productions in file order
+    private List<String> lhs = new ArrayList<String>();
+    private List<List<String>> rhs = new ArrayList<List<String>>();
+    private List<String> labels = new ArrayList<String>();
+
+    // nonterminals in order of first appearance as a left-hand side
+    private List<String> nonterminals = new ArrayList<String>();
+
+    private Set<String> nullable = new HashSet<String>();
+    private Map<String, Set<Tokens>> first = new HashMap<String, Set<Tokens>>();
+    private Map<String, Set<Tokens>> follow = new HashMap<String, Set<Tokens>>();
+
+    private BufferedReader in;
+    private PrintWriter parseTable;
+
+    public static void main(String args[]) {
+        new GrammarSetup().initParseTable();
+    }
+
+    GrammarSetup() {
+        try {
+            System.out.println("User's current working directory: " + System.getProperty("user.dir"));
+            String sep = System.getProperty("file.separator");
+
+            in = new BufferedReader(
+                    new FileReader("parser" + sep + "setup" + sep + "grammar.txt"));
+        } catch (Exception e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * read the productions; each line contains a left-hand side, the arrow,
+     * the right-hand side symbols and an optional label: e.g.<br>
+     * <ul>
+     * <li>S -> While E BLOCK @WHILE</li>
+     * <li>DECLS -> @NO_DECLS</li>
+     * </ul>
+     */
+    public void readGrammar() throws IOException {
+        String line;
+
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            StringTokenizer st = new StringTokenizer(line);
+            String left = st.nextToken();
+            if (!st.hasMoreTokens() || !st.nextToken().equals("->")) {
+                fail("***production has no '->': " + line + "***");
+            }
+
+            List<String> right = new ArrayList<String>();
+            String label = null;
+            while (st.hasMoreTokens()) {
+                String symbol = st.nextToken();
+                if (symbol.startsWith("@")) {
+                    label = symbol.substring(1);
+                } else {
+                    right.add(symbol);
+                }
+            }
+
+            if (!nonterminals.contains(left)) {
+                nonterminals.add(left);
+            }
+            lhs.add(left);
+            rhs.add(right);
+            labels.add(label);
+        }
+        in.close();
+
+        // every other symbol must be a token
+        for (List<String> symbols : rhs) {
+            for (String symbol : symbols) {
+                if (!nonterminals.contains(symbol)) {
+                    try {
+                        Tokens.valueOf(symbol);
+                    } catch (IllegalArgumentException e) {
+                        fail("***" + symbol + " is neither a nonterminal nor a token***");
+                    }
+                }
+            }
+        }
+
+        Set<String> names = new HashSet<String>(nonterminals);
+        for (String label : labels) {
+            if (label != null && !names.add(label)) {
+                fail("***label " + label + " is already in use***");
+            }
+        }
+    }
+
+    /**
+     * compute the nullable nonterminals and FIRST and FOLLOW sets by
+     * iterating to a fixed point; the end of input (EOF) follows the
+     * start symbol
+     */
+    public void computeSets() {
+        for (String nonterminal : nonterminals) {
+            first.put(nonterminal, EnumSet.noneOf(Tokens.class));
+            follow.put(nonterminal, EnumSet.noneOf(Tokens.class));
+        }
+        follow.get(nonterminals.get(0)).add(Tokens.EOF);
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int p = 0; p < lhs.size(); p++) {
+                String left = lhs.get(p);
+                List<String> right = rhs.get(p);
+
+                if (!nullable.contains(left) && isNullable(right, 0)) {
+                    nullable.add(left);
+                    changed = true;
+                }
+                changed |= first.get(left).addAll(firstOf(right, 0));
+
+                for (int i = 0; i < right.size(); i++) {
+                    String symbol = right.get(i);
+                    if (!nonterminals.contains(symbol)) {
+                        continue;
+                    }
+                    Set<Tokens> followers = follow.get(symbol);
+                    changed |= followers.addAll(firstOf(right, i + 1));
+                    if (isNullable(right, i + 1)) {
+                        changed |= followers.addAll(follow.get(left));
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isNullable(List<String> symbols, int from) {
+        for (int i = from; i < symbols.size(); i++) {
+            if (!nullable.contains(symbols.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<Tokens> firstOf(List<String> symbols, int from) {
+        Set<Tokens> result = EnumSet.noneOf(Tokens.class);
+
+        for (int i = from; i < symbols.size(); i++) {
+            String symbol = symbols.get(i);
+            if (!nonterminals.contains(symbol)) {
+                result.add(Tokens.valueOf(symbol));
+                return result;
+            }
+            result.addAll(first.get(symbol));
+            if (!nullable.contains(symbol)) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the table of productions indexed by nonterminal and token
+     *         ordinal; -1 marks an error entry
+     */
+    public int[][] buildTable() {
+        int[][] table = new int[nonterminals.size()][Tokens.values().length];
+        for (int[] row : table) {
+            Arrays.fill(row, -1);
+        }
+
+        for (int p = 0; p < lhs.size(); p++) {
+            int nonterminal = nonterminals.indexOf(lhs.get(p));
+            Set<Tokens> predict = firstOf(rhs.get(p), 0);
+            if (isNullable(rhs.get(p), 0)) {
+                predict.addAll(follow.get(lhs.get(p)));
+            }
+
+            for (Tokens kind : predict) {
+                int other = table[nonterminal][kind.ordinal()];
+                if (other != -1) {
+                    fail(String.format("***grammar is not LL(1): %s and %s both predicted on %s***",
+                            production(other), production(p), kind));
+                }
+                table[nonterminal][kind.ordinal()] = p;
+            }
+        }
+        return table;
+    }
+
+    private String production(int p) {
+        String right = String.join(" ", rhs.get(p));
+        return lhs.get(p) + " ->" + (right.isEmpty() ? "" : " " + right);
+    }
+
+    private void fail(String message) {
+        System.err.println(message);
+        System.exit(1);
+    }
+
+    /**
+     * initParseTable will create the file
+     */
+    public void initParseTable() {
+        try {
+            readGrammar();
+        } catch (IOException e) {
+            fail("***cannot read grammar: " + e.getMessage() + "***");
+        }
+        computeSets();
+        int[][] table = buildTable();
+
+        // only replace the old table once the grammar is known to be LL(1)
+        try {
+            String sep = System.getProperty("file.separator");
+            parseTable = new PrintWriter(new FileOutputStream(
+                    "parser" + sep + "ParseTable.java"));
+        } catch (IOException e) {
+            fail("***cannot write ParseTable.java: " + e.getMessage() + "***");
+        }
+
+        parseTable.println("package parser;");
+        parseTable.println("");
+        parseTable.println("import java.util.Arrays;");
+        parseTable.println("import lexer.Tokens;");
+        parseTable.println("");
+        parseTable.println("/**");
+        parseTable.println(" * This file is automatically generated");
+        parseTable.println(" * it contains the LL(1) prediction table for the grammar");
+        parseTable.println(" * in parser/setup/grammar.txt; PREDICT[nonterminal][token ordinal]");
+        parseTable.println(" * is the production to expand the nonterminal with, or NO_PRODUCTION");
+        parseTable.println(" */");
+        parseTable.println("public class ParseTable {");
+        parseTable.println("");
+        parseTable.println("  // nonterminals");
+        for (int n = 0; n < nonterminals.size(); n++) {
+            parseTable.println("  public static final int " + nonterminals.get(n) + " = " + n + ";");
+        }
+        parseTable.println("");
+        parseTable.println("  // labelled productions");
+        for (int p = 0; p < lhs.size(); p++) {
+            if (labels.get(p) != null) {
+                parseTable.println("  public static final int " + labels.get(p) + " = " + p
+                        + "; // " + production(p));
+            }
+        }
+        parseTable.println("");
+        parseTable.println("  public static final int NO_PRODUCTION = -1;");
+        parseTable.println("");
+        parseTable.println("  public static final String[] PRODUCTIONS = {");
+        for (int p = 0; p < lhs.size(); p++) {
+            parseTable.println("    \"" + production(p) + "\",");
+        }
+        parseTable.println("  };");
+        parseTable.println("");
+        parseTable.println("  public static final int[][] PREDICT =");
+        parseTable.println("      new int[" + nonterminals.size() + "][Tokens.values().length];");
+        parseTable.println("");
+        parseTable.println("  static {");
+        parseTable.println("    for (int[] row : PREDICT) {");
+        parseTable.println("      Arrays.fill(row, NO_PRODUCTION);");
+        parseTable.println("    }");
+        for (int n = 0; n < nonterminals.size(); n++) {
+            parseTable.println("");
+            for (Tokens kind : Tokens.values()) {
+                int p = table[n][kind.ordinal()];
+                if (p != -1) {
+                    String production = labels.get(p) != null ? labels.get(p) : String.valueOf(p);
+                    parseTable.println("    entry(" + nonterminals.get(n) + ", Tokens." + kind + ", "
+                            + production + ");");
+                }
+            }
+        }
+        parseTable.println("  }");
+        parseTable.println("");
+        parseTable.println("  private static void entry(int nonterminal, Tokens kind, int production) {");
+        parseTable.println("    PREDICT[nonterminal][kind.ordinal()] = production;");
+        parseTable.println("  }");
+        parseTable.println("}");
+        parseTable.close();
+    }
+}
@@ -1,9 +1,18 @@
 package tests.helpers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.StringTokenizer;
 
 import ast.*;
+import constrain.ConstrainResult;
+import constrain.Constrainer.ConstrainerErrors;
+import constrain.Diagnostic;
 import lexer.ILexer;
 import lexer.Symbol;
 import lexer.Token;
@@ -103,4 +112,60 @@ public class Helpers {
 
         return lexer;
     }
+
+    /**
+     * @return an int literal tree for n, e.g. as a value to enter in a scope
+     */
+    public static AST value(String n) {
+        return new IntTree(Symbol.symbol(n, Tokens.INTeger));
+    }
+
+    /**
+     * @return what the code run prints to System.out
+     */
+    public static String capture(Runnable print) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes));
+        try {
+            print.run();
+        } finally {
+            System.setOut(out);
+        }
+        return bytes.toString();
+    }
+
+    /**
+     * @return the kinds of the errors found by the constrainer, in order
+     */
+    public static List<ConstrainerErrors> errors(ConstrainResult result) {
+        List<ConstrainerErrors> errors = new ArrayList<>();
+        for (Diagnostic d : result.getDiagnostics()) {
+            errors.add(d.getError());
+        }
+        return errors;
+    }
+
+    /**
+     * @return the errors found by the constrainer as text, in order
+     */
+    public static List<String> describe(ConstrainResult result) {
+        List<String> descriptions = new ArrayList<>();
+        for (Diagnostic d : result.getDiagnostics()) {
+            descriptions.add(d.toString());
+        }
+        return descriptions;
+    }
+
+    public static void assertSameTree(FlatAst expected, FlatAst actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int n = 0; n < expected.size(); n++) {
+            assertEquals(expected.kind(n), actual.kind(n));
+            assertEquals(expected.firstKid(n), actual.firstKid(n));
+            assertEquals(expected.nextSibling(n), actual.nextSibling(n));
+            assertEquals(expected.symbol(n), actual.symbol(n));
+            assertEquals(expected.decoration(n), actual.decoration(n));
+            assertEquals(expected.nodeNum(n), actual.nodeNum(n));
+        }
+    }
 }
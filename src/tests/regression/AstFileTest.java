@@ -0,0 +1,103 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AstFile;
+import ast.FlatAst;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class AstFileTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  string <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "  <id> = <string>",
+                    "  if <id> >= <hex> then { <id> = <int> } else { }",
+                    "}"));
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        FlatAst tree = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).executeFlat();
+        Path file = Files.createTempFile("ast", ".bin");
+        try {
+            AstFile.write(tree, file);
+            Helpers.assertSameTree(tree, AstFile.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDecorationsKept() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        AST block = program.getKid(1);
+        block.getKid(3).getKid(1).setDecoration(block.getKid(1));
+
+        Path file = Files.createTempFile("ast", ".bin");
+        try {
+            AstFile.write(program, file);
+            FlatAst loaded = AstFile.load(file);
+
+            Helpers.assertSameTree(FlatAst.from(program), loaded);
+            AST view = loaded.getTree().getKid(1);
+            AST assigned = view.getKid(3).getKid(1);
+            assertEquals(view.getKid(1), assigned.getDecoration());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBadFile() throws Exception {
+        Path file = Files.createTempFile("ast", ".bin");
+        try {
+            Files.write(file, new byte[] { 1, 2, 3 });
+            assertThrows(IOException.class, () -> AstFile.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBadLinks() throws Exception {
+        FlatAst tree = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).executeFlat();
+        int n = tree.size();
+        Path file = Files.createTempFile("ast", ".bin");
+        try {
+            AstFile.write(tree, file);
+            byte[] bytes = Files.readAllBytes(file);
+            // the next siblings are the second of the five int arrays
+            int siblings = bytes.length - 4 * 4 * n;
+
+            // the last node's sibling points back at the root's first kid,
+            // which would make a cycle
+            ByteBuffer.wrap(bytes).putInt(siblings + 4 * (n - 1), 1);
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> AstFile.load(file));
+
+            // a truncated file
+            AstFile.write(tree, file);
+            bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            assertThrows(IOException.class, () -> AstFile.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AstMetadata;
+import ast.BlockTree;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class AstMetadataTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "  while <id> < <int> { if <id> then { <id> = <int> } }",
+                    "}"));
+
+    @Test
+    public void testMetadataMatchesTree() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        AST program = parser.execute();
+        AstMetadata metadata = parser.getMetadata();
+        List<AST> preorder = new ArrayList<>();
+        collect(program, preorder);
+
+        for (int i = 0; i < preorder.size(); i++) {
+            AST t = preorder.get(i);
+            assertEquals(i, metadata.preorder(t));
+            assertEquals(i + size(t), metadata.subtreeEnd(t));
+            assertEquals(height(t), metadata.depth(t));
+            assertEquals(t.depth(), metadata.depth(t));
+            assertEquals(t.getLevel(), metadata.level(t));
+        }
+        assertEquals(1, metadata.level(program));
+        assertEquals(2, metadata.level(program.getKid(1)));
+        assertEquals(preorder.size(), metadata.size());
+        // computed once, on the first request
+        assertSame(metadata, parser.getMetadata());
+    }
+
+    @Test
+    public void testAncestors() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        AST program = parser.execute();
+        AstMetadata metadata = parser.getMetadata();
+        AST block = program.getKid(1);
+        AST assign = block.getKid(2);
+        AST whileTree = block.getKid(3);
+        AST inner = whileTree.getKid(2).getKid(1).getKid(2).getKid(1);
+
+        for (AST[] pair : new AST[][] { { program, inner }, { whileTree, inner }, { assign, inner },
+                { inner, inner }, { inner, whileTree } }) {
+            assertEquals(pair[0].isAncestorOf(pair[1]), metadata.isAncestor(pair[0], pair[1]));
+        }
+        assertTrue(metadata.isAncestor(whileTree, inner));
+        assertFalse(metadata.isAncestor(assign, inner));
+        assertEquals(7, metadata.level(inner));
+    }
+
+    @Test
+    public void testTreeQueriesSeeEdits() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        AST block = program.getKid(1);
+        AST thenBlock = block.getKid(3).getKid(2).getKid(1).getKid(2);
+        int depth = block.depth();
+
+        // the metadata pass keeps nothing in the nodes, so they answer for
+        // the tree as it is now
+        AST innermost = new BlockTree();
+        thenBlock.addKid(new BlockTree().addKid(new BlockTree().addKid(innermost)));
+        assertEquals(depth + 1, block.depth());
+        assertEquals(height(block), block.depth());
+        assertEquals(9, innermost.getLevel());
+        assertTrue(block.isAncestorOf(innermost));
+    }
+
+    @Test
+    public void testSharedNodes() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(
+                "program { int <id> <id> = <int> while <id> < <int> { <id> = <int> } }"));
+        parser.setHashConsing(true);
+        AST program = parser.execute();
+        AstMetadata metadata = parser.getMetadata();
+        AST block = program.getKid(1);
+        AST literal = block.getKid(2).getKid(2), whileTree = block.getKid(3);
+        assertSame(literal, whileTree.getKid(2).getKid(1).getKid(2));
+
+        // the literal appears under both the first assignment and the loop
+        assertTrue(metadata.isAncestor(block.getKid(2), literal));
+        assertTrue(metadata.isAncestor(whileTree, literal));
+        assertThrows(IllegalArgumentException.class, () -> metadata.level(literal));
+        assertEquals(1, metadata.depth(literal));
+        assertEquals(size(program), metadata.size());
+    }
+
+    private static void collect(AST t, List<AST> nodes) {
+        nodes.add(t);
+        for (AST kid : t.getKids()) {
+            collect(kid, nodes);
+        }
+    }
+
+    private static int size(AST t) {
+        int size = 1;
+        for (AST kid : t.getKids()) {
+            size += size(kid);
+        }
+        return size;
+    }
+
+    private static int height(AST t) {
+        int height = 0;
+        for (AST kid : t.getKids()) {
+            height = Math.max(height, height(kid));
+        }
+        return height + 1;
+    }
+}
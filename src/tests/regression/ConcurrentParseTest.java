@@ -0,0 +1,68 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import ast.AST;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class ConcurrentParseTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "  while <id> < <int> { <id> = <id> - <int> }",
+                    "}"));
+
+    @Test
+    public void testNumberingIsPerParser() throws Exception {
+        AST first = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        AST second = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+
+        assertEquals(1, first.getNodeNum());
+        assertEquals(1, second.getNodeNum());
+        assertEquals(numbers(first), numbers(second));
+    }
+
+    @Test
+    public void testConcurrentParsers() throws Exception {
+        List<Integer> expected = numbers(new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<List<Integer>>> parses = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                parses.add(() -> numbers(new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute()));
+            }
+            for (Future<List<Integer>> result : pool.invokeAll(parses)) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the node numbers of t in preorder
+     */
+    private static List<Integer> numbers(AST t) {
+        List<Integer> result = new ArrayList<>();
+        result.add(t.getNodeNum());
+        for (AST kid : t.getKids()) {
+            result.addAll(numbers(kid));
+        }
+        return result;
+    }
+}
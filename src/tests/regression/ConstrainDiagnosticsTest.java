@@ -0,0 +1,112 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import ast.AST;
+import constrain.ConstrainResult;
+import constrain.Constrainer;
+import constrain.Constrainer.ConstrainerErrors;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class ConstrainDiagnosticsTest {
+
+    private static final List<String> PROGRAM = List.of(
+            "program { int i boolean b",
+            "  int f(int a) {",
+            "    a = b",
+            "    if a then { a = 1 } else { a = 2 }",
+            "    return a",
+            "  }",
+            "  i = f(b)",
+            "  i = f(1, 2)",
+            "  i = missing + 1",
+            "  b = i + b",
+            "  i = i",
+            "}");
+
+    @Test
+    public void testAllErrorsReported() throws Exception {
+        ConstrainResult result = constrain(null);
+
+        assertTrue(result.hasErrors());
+        // undeclared and mistyped operands are each reported once; the
+        // assignments around them are not reported again
+        assertEquals(List.of(
+                ConstrainerErrors.BadAssignmentType,
+                ConstrainerErrors.BadConditional,
+                ConstrainerErrors.ActualFormalTypeMismatch,
+                ConstrainerErrors.NumberActualsFormalsDiffer,
+                ConstrainerErrors.UndeclaredIdentifier,
+                ConstrainerErrors.TypeMismatchInExpr), Helpers.errors(result));
+    }
+
+    @Test
+    public void testParallelReportsSameErrors() throws Exception {
+        List<String> sequential = Helpers.describe(constrain(null));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int run = 0; run < 5; run++) {
+                assertEquals(sequential, Helpers.describe(constrain(pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoErrors() throws Exception {
+        Path source = Files.createTempFile("diagnostics", ".x");
+        Files.write(source, List.of("program { int i i = 1 + i }"));
+        try {
+            Parser parser = new Parser(source.toString());
+            AST program = parser.execute();
+            assertFalse(new Constrainer(program).execute().hasErrors());
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Test
+    public void testIfWithoutElse() throws Exception {
+        List<String> program = List.of(
+                "program { int i",
+                "  int f(int a) { if a > 0 then { a = 1 } return a }",
+                "  if i then { i = 1 }",
+                "}");
+
+        assertEquals(List.of(ConstrainerErrors.BadConditional), Helpers.errors(constrain(program, null)));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(List.of(ConstrainerErrors.BadConditional), Helpers.errors(constrain(program, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static ConstrainResult constrain(ForkJoinPool pool) throws Exception {
+        return constrain(PROGRAM, pool);
+    }
+
+    private static ConstrainResult constrain(List<String> lines, ForkJoinPool pool) throws Exception {
+        Path source = Files.createTempFile("diagnostics", ".x");
+        Files.write(source, lines);
+        try {
+            Parser parser = new Parser(source.toString());
+            AST program = parser.execute();
+            Constrainer constrainer = new Constrainer(program);
+            return pool == null ? constrainer.execute() : constrainer.executeParallel(pool);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+}
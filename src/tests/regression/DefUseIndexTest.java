@@ -0,0 +1,164 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.IdTree;
+import constrain.ConstrainResult;
+import constrain.Constrainer;
+import constrain.DefUseIndex;
+import constrain.Prelude;
+import lexer.Symbol;
+import lexer.Tokens;
+import parser.Parser;
+import visitor.TreeWalker;
+
+public class DefUseIndexTest {
+
+    private static final List<String> PROGRAM = List.of(
+            "program { int i int j",
+            "  int f(int a) { int b b = a + i return b * a }",
+            "  int g(int c) { return f(c) + f(i) }",
+            "  i = read() j = g(i)",
+            "  { int i i = j j = write(i) }",
+            "}");
+
+    @Test
+    public void testUsesOfEachDeclaration() throws Exception {
+        Parser parser = parse();
+        AST program = parser.execute();
+        Constrainer constrainer = new Constrainer(program);
+        constrainer.indexUses();
+        ConstrainResult result = constrainer.execute();
+        DefUseIndex index = result.getIndex();
+
+        List<AST> uses = usesIn(program);
+        assertEquals(uses.size(), index.size());
+        for (AST use : uses) {
+            AST decl = use.getDecoration();
+            assertSame(decl, index.declOf(use));
+
+            List<AST> expected = usesIn(program).stream().filter(u -> u.getDecoration() == decl)
+                    .sorted(Comparator.comparingInt(AST::getNodeNum)).collect(Collectors.toList());
+            assertEquals(expected, index.usesOf(decl));
+            assertEquals(expected.size(), index.useCount(decl));
+        }
+        // the outer i: used in f, in g, as the target of read and in g(i)
+        AST outerI = program.getKid(1).getKid(1);
+        assertEquals(4, index.useCount(outerI));
+        assertNull(index.declOf(outerI));
+    }
+
+    @Test
+    public void testEditedInUseIndexed() throws Exception {
+        AST program = parse().execute();
+        AST outerI = program.getKid(1).getKid(1), f = program.getKid(1).getKid(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Constrainer constrainer = new Constrainer(program);
+            constrainer.indexUses();
+            constrainer.executeParallel(pool);
+
+            // b = a + i, with an i no AstContext numbered
+            AST sum = f.getKid(4).getKid(2).getKid(2);
+            AST i = new IdTree(Symbol.symbol("i", Tokens.Identifier));
+            AST old = sum.replaceKid(2, i);
+            DefUseIndex index = constrainer.recheck(List.of(f), pool).getIndex();
+
+            assertSame(outerI, index.declOf(i));
+            assertNull(index.declOf(old));
+            assertTrue(index.usesOf(outerI).contains(i));
+            assertFalse(index.usesOf(outerI).contains(old));
+            assertEquals(4, index.useCount(outerI));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelIndexIsTheSame() throws Exception {
+        Parser parser = parse();
+        AST program = parser.execute();
+        Constrainer sequential = new Constrainer(program);
+        assertNull(sequential.execute().getIndex());
+        sequential = new Constrainer(program);
+        sequential.indexUses();
+        DefUseIndex expected = sequential.execute().getIndex();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Constrainer parallel = new Constrainer(program);
+            parallel.indexUses();
+            DefUseIndex index = parallel.executeParallel(pool).getIndex();
+            assertSameIndex(expected, index, program);
+
+            AST g = program.getKid(1).getKid(4);
+            assertSameIndex(expected, parallel.recheck(List.of(g), pool).getIndex(), program);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameIndex(DefUseIndex expected, DefUseIndex index, AST program) {
+        assertEquals(expected.size(), index.size());
+        for (AST use : usesIn(program)) {
+            AST decl = use.getDecoration();
+            assertSame(expected.declOf(use), index.declOf(use));
+            assertEquals(expected.usesOf(decl), index.usesOf(decl));
+        }
+    }
+
+    /**
+     * @return the IdTrees decorated with a declaration in the program
+     */
+    private static List<AST> usesIn(AST program) {
+        List<AST> uses = new ArrayList<>();
+        TreeWalker.walk(program, new TreeWalker.Callbacks() {
+            @Override
+            public boolean enter(AST t) {
+                AST decl = t.getDecoration();
+                if (t instanceof IdTree && decl != null && !inPrelude(decl)) {
+                    uses.add(t);
+                }
+                return true;
+            }
+
+            @Override
+            public void exit(AST t) {
+            }
+        });
+        return uses;
+    }
+
+    /**
+     * @return true for the intrinsic functions and the type trees
+     */
+    private static boolean inPrelude(AST decl) {
+        Prelude prelude = Prelude.get();
+        return decl == prelude.readTree || decl == prelude.writeTree || prelude.typeOf(decl) != null;
+    }
+
+    private static Parser parse() throws Exception {
+        Path source = Files.createTempFile("defuse", ".x");
+        Files.write(source, PROGRAM);
+        try {
+            return new Parser(source.toString());
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AssignTree;
+import ast.BlockTree;
+import ast.DeclTree;
+import ast.IdTree;
+import ast.IntTree;
+import ast.IntTypeTree;
+import ast.ProgramTree;
+import lexer.Tokens;
+import parser.Parser;
+import parser.SyntaxError;
+import tests.helpers.Helpers;
+import tests.helpers.TestVisitor;
+import visitor.ASTVisitor;
+
+public class ErrorRecoveryTest {
+
+    private static final String TWO_ERRORS_PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = +",
+                    "  <id> = = <int>",
+                    "  <id> = <int>",
+                    "}"));
+
+    @Test
+    public void testAllErrorsReported() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(TWO_ERRORS_PROGRAM));
+
+        AST ast = parser.executeWithRecovery();
+        List<SyntaxError> errors = parser.getSyntaxErrors();
+
+        assertEquals(2, errors.size());
+        assertEquals(Tokens.Identifier, errors.get(0).getKindExpected());
+        assertEquals(Tokens.Plus, errors.get(0).getTokenFound().getKind());
+        assertEquals(Tokens.Identifier, errors.get(1).getKindExpected());
+        assertEquals(Tokens.Assign, errors.get(1).getTokenFound().getKind());
+
+        ASTVisitor visitor = new TestVisitor(List.of(
+                new ProgramTree(),
+                new BlockTree(),
+                new DeclTree(),
+                new IntTypeTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new AssignTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new IntTree(Helpers.getTestToken("<int>"))));
+
+        assertEquals(null, ast.accept(visitor));
+    }
+
+    @Test
+    public void testMissingBraceReportedAtEnd() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram("program { <id> = <int>"));
+
+        AST ast = parser.executeWithRecovery();
+
+        assertEquals(1, parser.getSyntaxErrors().size());
+        assertEquals(Tokens.RightBrace, parser.getSyntaxErrors().get(0).getKindExpected());
+        assertEquals(1, ast.getKid(1).kidCount());
+    }
+
+    @Test
+    public void testDeclarationAfterStatementReported() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram("program { <id> = <int> int <id> }"));
+
+        AST ast = parser.executeWithRecovery();
+        List<SyntaxError> errors = parser.getSyntaxErrors();
+
+        assertEquals(1, errors.size());
+        assertNull(errors.get(0).getKindExpected());
+        assertEquals(Tokens.Int, errors.get(0).getTokenFound().getKind());
+        assertTrue(errors.get(0).toString().startsWith("Declaration after a statement"));
+        assertEquals(2, ast.getKid(1).kidCount());
+    }
+
+    @Test
+    public void testBrokenFunctionHeaderDropsItsBody() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(
+                "program { int <id> ( int ) { int <id> <id> = <int> } <id> = <int> }"));
+
+        AST ast = parser.executeWithRecovery();
+        List<SyntaxError> errors = parser.getSyntaxErrors();
+
+        // the body isn't parsed as a block whose declaration follows a
+        // statement
+        assertEquals(1, errors.size());
+        assertEquals(Tokens.Identifier, errors.get(0).getKindExpected());
+        assertEquals(1, ast.getKid(1).kidCount());
+        assertEquals(AssignTree.class, ast.getKid(1).getKid(1).getClass());
+    }
+
+    @Test
+    public void testMissingLeftBraceDropsOnlyItsStatement() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(
+                "program { while <id> <id> = <int> <id> = <int> }"));
+
+        AST ast = parser.executeWithRecovery();
+        List<SyntaxError> errors = parser.getSyntaxErrors();
+
+        assertEquals(1, errors.size());
+        assertEquals(Tokens.LeftBrace, errors.get(0).getKindExpected());
+        // the assignments stay in the program's block
+        assertEquals(2, ast.getKid(1).kidCount());
+    }
+
+    @Test
+    public void testInputAfterProgramReported() throws Exception {
+        final String program = "program { <id> = <int> } <id> =";
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(program));
+
+        parser.executeWithRecovery();
+        List<SyntaxError> errors = parser.getSyntaxErrors();
+
+        assertEquals(1, errors.size());
+        assertEquals(Tokens.Identifier, errors.get(0).getTokenFound().getKind());
+        assertTrue(errors.get(0).toString().startsWith("Input after the end of the program"));
+        assertThrows(SyntaxError.class, new Parser(Helpers.lexerFromPseudoProgram(program))::execute);
+    }
+
+    @Test
+    public void testExecuteStillStopsAtFirstError() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(TWO_ERRORS_PROGRAM));
+
+        assertThrows(SyntaxError.class, parser::execute);
+    }
+}
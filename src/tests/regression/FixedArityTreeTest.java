@@ -0,0 +1,75 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AddOpTree;
+import ast.BlockTree;
+import ast.IdTree;
+import ast.IfTree;
+import ast.IntTree;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class FixedArityTreeTest {
+
+    @Test
+    public void testKidsInFields() {
+        AST left = new IdTree(Helpers.getTestToken("<id>"));
+        AST right = new IntTree(Helpers.getTestToken("<int>"));
+        AST add = new AddOpTree(Helpers.getTestToken("+")).addKid(left).addKid(right);
+
+        assertEquals(2, add.kidCount());
+        assertSame(left, add.getKid(1));
+        assertSame(right, add.getKid(2));
+        assertNull(add.getKid(3));
+        assertEquals(List.of(left, right), add.getKids());
+        assertEquals(2, add.depth());
+        assertThrows(IllegalStateException.class, () -> add.addKid(new IntTree(Helpers.getTestToken("<int>"))));
+    }
+
+    @Test
+    public void testIfWithAndWithoutElse() throws Exception {
+        AST ifTree = new IfTree().addKid(new IdTree(Helpers.getTestToken("<id>"))).addKid(new BlockTree());
+        assertEquals(2, ifTree.kidCount());
+
+        ifTree.addKid(new BlockTree());
+        assertEquals(3, ifTree.kidCount());
+
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(
+                "program { if <id> then { } else if <id> then { } else { } }")).execute();
+        AST outer = program.getKid(1).getKid(1);
+        assertEquals(IfTree.class, outer.getClass());
+        assertEquals(3, outer.kidCount());
+        assertEquals(IfTree.class, outer.getKid(3).getClass());
+    }
+
+    @Test
+    public void testReplaceKid() {
+        AST left = new IdTree(Helpers.getTestToken("<id>"));
+        AST add = new AddOpTree(Helpers.getTestToken("+")).addKid(left)
+                .addKid(new IntTree(Helpers.getTestToken("<int>")));
+        AST block = new BlockTree().addKid(new BlockTree()).addKid(add);
+
+        for (AST parent : List.of(add, block)) {
+            AST old = parent.getKid(1), kid = new IntTree(Helpers.getTestToken("<int>"));
+            assertSame(old, parent.replaceKid(1, kid));
+            assertSame(kid, parent.getKid(1));
+            assertEquals(2, parent.kidCount());
+            assertTrue(parent.isAncestorOf(kid));
+            assertFalse(parent.isAncestorOf(old));
+            assertThrows(IndexOutOfBoundsException.class, () -> parent.replaceKid(3, kid));
+            assertThrows(UnsupportedOperationException.class, () -> parent.getKids().set(0, old));
+        }
+        assertTrue(block.isAncestorOf(add.getKid(1)));
+    }
+}
@@ -0,0 +1,124 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AddOpTree;
+import ast.AssignTree;
+import ast.AstMetadata;
+import ast.BlockTree;
+import ast.DeclTree;
+import ast.FlatAst;
+import ast.IdTree;
+import ast.IntTree;
+import ast.IntTypeTree;
+import ast.MultOpTree;
+import ast.NodeKind;
+import ast.ProgramTree;
+import parser.Parser;
+import tests.helpers.Helpers;
+import tests.helpers.TestVisitor;
+import visitor.ASTVisitor;
+
+public class FlatAstTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "}"));
+
+    @Test
+    public void testFlatTreeMatchesTree() throws Exception {
+        AST tree = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        FlatAst flat = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).executeFlat();
+
+        assertFlatMatches(tree, flat, 0);
+        assertEquals(12, flat.size());
+    }
+
+    @Test
+    public void testViewSupportsVisitors() throws Exception {
+        FlatAst flat = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).executeFlat();
+
+        ASTVisitor visitor = new TestVisitor(List.of(
+                new ProgramTree(),
+                new BlockTree(),
+                new DeclTree(),
+                new IntTypeTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new AssignTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new AddOpTree(Helpers.getTestToken("+")),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new MultOpTree(Helpers.getTestToken("*")),
+                new IntTree(Helpers.getTestToken("<int>")),
+                new IntTree(Helpers.getTestToken("<int>"))));
+
+        assertEquals(null, flat.accept(visitor));
+        // each view is made afresh
+        assertNotSame(flat.getTree(), flat.view(0));
+        assertTrue(flat.getTree().structurallyEquals(flat.view(0)));
+    }
+
+    @Test
+    public void testViewOfDeepTree() {
+        // a chain of nested blocks deep enough to overflow a recursive walk
+        FlatAst.Builder builder = new FlatAst.Builder();
+        int depth = 100000;
+        for (int i = 0; i < depth; i++) {
+            builder.add(NodeKind.Block, null, i + 1);
+        }
+        for (int i = 0; i + 1 < depth; i++) {
+            builder.setKids(i, new int[] { i + 1 }, 1);
+        }
+        FlatAst flat = builder.build(0);
+
+        assertEquals(depth, flat.subtreeEnd(0));
+        AST root = flat.view(0);
+        assertEquals(depth, AstMetadata.compute(root).depth(root));
+        AST view = flat.view(depth - 2);
+        assertEquals(depth - 1, view.getNodeNum());
+        assertEquals(depth, view.getKid(1).getNodeNum());
+    }
+
+    @Test
+    public void testFromTree() throws Exception {
+        AST tree = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        tree.getKid(1).getKid(2).getKid(1).setDecoration(tree.getKid(1).getKid(1));
+
+        FlatAst flat = FlatAst.from(tree);
+
+        assertFlatMatches(tree, flat, 0);
+        // the assigned id is decorated with the declaration
+        assertEquals(2, flat.decoration(6));
+        assertEquals(FlatAst.NONE, flat.decoration(0));
+    }
+
+    /**
+     * check the flat subtree at n against t; returns the index after it
+     */
+    private static int assertFlatMatches(AST t, FlatAst flat, int n) {
+        assertEquals(NodeKind.of(t), flat.kind(n));
+        assertEquals(NodeKind.symbolOf(t), flat.symbol(n));
+        assertEquals(t.getNodeNum(), flat.nodeNum(n));
+        assertEquals(t.kidCount(), flat.kidCount(n));
+
+        int next = n + 1;
+        int kid = flat.firstKid(n);
+        for (AST tKid : t.getKids()) {
+            assertEquals(next, kid);
+            next = assertFlatMatches(tKid, flat, kid);
+            kid = flat.nextSibling(kid);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,68 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import parser.Parser;
+import tests.helpers.Helpers;
+import visitor.CountVisitor;
+import visitor.FusedVisitor;
+import visitor.PrintVisitor;
+import visitor.TreeWalker;
+
+public class FusedVisitorTest {
+
+    // PrintVisitor skips the kids of the select block while CountVisitor
+    // counts them
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "  select {",
+                    "    [ <id> == <int> ] -> { <id> = <int> }",
+                    "  }",
+                    "  while <id> < <int> { <id> = <int> }",
+                    "}"));
+
+    @Test
+    public void testFusedMatchesSeparateWalks() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+
+        String printed = Helpers.capture(() -> TreeWalker.walk(program, new PrintVisitor()));
+        CountVisitor counted = new CountVisitor();
+        TreeWalker.walk(program, counted);
+
+        CountVisitor fusedCount = new CountVisitor();
+        String fusedPrint = Helpers.capture(
+                () -> TreeWalker.walk(program, new FusedVisitor(new PrintVisitor(), fusedCount)));
+
+        assertEquals(printed, fusedPrint);
+        assertArrayEquals(counted.getCount(), fusedCount.getCount());
+    }
+
+    @Test
+    public void testAllVisitorsSkipping() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        int[] entered = new int[1];
+        TreeWalker.Callbacks rootOnly = new TreeWalker.Callbacks() {
+            public boolean enter(AST t) {
+                entered[0]++;
+                return false;
+            }
+
+            public void exit(AST t) {
+                entered[0] += 100;
+            }
+        };
+
+        TreeWalker.walk(program, new FusedVisitor(rootOnly, rootOnly));
+        assertEquals(2, entered[0]);
+    }
+}
@@ -0,0 +1,321 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import parser.Parser;
+import tests.helpers.Helpers;
+import visitor.GenericVisitor;
+import visitor.IntVisitor;
+
+public class GenericVisitorTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int>",
+                    "}"));
+
+    @Test
+    public void testTypedResultAndContext() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        StringBuilder trace = new StringBuilder();
+
+        String result = program.accept(new KindTracer(), trace);
+        assertEquals("Program", result);
+        assertEquals("Program Block Decl IntType Id Assign Id AddOp Id Int ", trace.toString());
+    }
+
+    @Test
+    public void testIntResults() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+
+        // the sum of the levels of the leaves: x in the decl at level 4 and
+        // x = x + 42 at levels 4, 5 and 5
+        assertEquals(18, program.accept(new LeafLevels(), 1));
+    }
+
+    /**
+     * records each node's kind in preorder and returns it
+     */
+    private static class KindTracer extends GenericVisitor<String, StringBuilder> {
+
+        private String visit(String kind, AST t, StringBuilder trace) {
+            trace.append(kind).append(' ');
+            visitKids(t, trace);
+            return kind;
+        }
+
+        @Override
+        public String visitProgramTree(AST t, StringBuilder trace) {
+            return visit("Program", t, trace);
+        }
+
+        @Override
+        public String visitBlockTree(AST t, StringBuilder trace) {
+            return visit("Block", t, trace);
+        }
+
+        @Override
+        public String visitFunctionDeclTree(AST t, StringBuilder trace) {
+            return visit("FunctionDecl", t, trace);
+        }
+
+        @Override
+        public String visitCallTree(AST t, StringBuilder trace) {
+            return visit("Call", t, trace);
+        }
+
+        @Override
+        public String visitDeclTree(AST t, StringBuilder trace) {
+            return visit("Decl", t, trace);
+        }
+
+        @Override
+        public String visitIntTypeTree(AST t, StringBuilder trace) {
+            return visit("IntType", t, trace);
+        }
+
+        @Override
+        public String visitStringTypeTree(AST t, StringBuilder trace) {
+            return visit("StringType", t, trace);
+        }
+
+        @Override
+        public String visitHexTypeTree(AST t, StringBuilder trace) {
+            return visit("HexType", t, trace);
+        }
+
+        @Override
+        public String visitBoolTypeTree(AST t, StringBuilder trace) {
+            return visit("BoolType", t, trace);
+        }
+
+        @Override
+        public String visitFormalsTree(AST t, StringBuilder trace) {
+            return visit("Formals", t, trace);
+        }
+
+        @Override
+        public String visitActualArgsTree(AST t, StringBuilder trace) {
+            return visit("ActualArgs", t, trace);
+        }
+
+        @Override
+        public String visitIfTree(AST t, StringBuilder trace) {
+            return visit("If", t, trace);
+        }
+
+        @Override
+        public String visitWhileTree(AST t, StringBuilder trace) {
+            return visit("While", t, trace);
+        }
+
+        @Override
+        public String visitReturnTree(AST t, StringBuilder trace) {
+            return visit("Return", t, trace);
+        }
+
+        @Override
+        public String visitAssignTree(AST t, StringBuilder trace) {
+            return visit("Assign", t, trace);
+        }
+
+        @Override
+        public String visitIntTree(AST t, StringBuilder trace) {
+            return visit("Int", t, trace);
+        }
+
+        @Override
+        public String visitStringTree(AST t, StringBuilder trace) {
+            return visit("String", t, trace);
+        }
+
+        @Override
+        public String visitHexTree(AST t, StringBuilder trace) {
+            return visit("Hex", t, trace);
+        }
+
+        @Override
+        public String visitIdTree(AST t, StringBuilder trace) {
+            return visit("Id", t, trace);
+        }
+
+        @Override
+        public String visitRelOpTree(AST t, StringBuilder trace) {
+            return visit("RelOp", t, trace);
+        }
+
+        @Override
+        public String visitAddOpTree(AST t, StringBuilder trace) {
+            return visit("AddOp", t, trace);
+        }
+
+        @Override
+        public String visitMultOpTree(AST t, StringBuilder trace) {
+            return visit("MultOp", t, trace);
+        }
+
+        @Override
+        public String visitUnlessTree(AST t, StringBuilder trace) {
+            return visit("Unless", t, trace);
+        }
+
+        @Override
+        public String visitSelectTree(AST t, StringBuilder trace) {
+            return visit("Select", t, trace);
+        }
+
+        @Override
+        public String visitSelectBlockTree(AST t, StringBuilder trace) {
+            return visit("SelectBlock", t, trace);
+        }
+
+        @Override
+        public String visitSelectorTree(AST t, StringBuilder trace) {
+            return visit("Selector", t, trace);
+        }
+    }
+
+    /**
+     * sums the levels of the leaves holding a Symbol
+     */
+    private static class LeafLevels extends IntVisitor<Integer> {
+
+        @Override
+        public int visitProgramTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitBlockTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitFunctionDeclTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitCallTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitDeclTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitIntTypeTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitStringTypeTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitHexTypeTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitBoolTypeTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitFormalsTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitActualArgsTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitIfTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitWhileTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitReturnTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitAssignTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitIntTree(AST t, Integer level) {
+            return level;
+        }
+
+        @Override
+        public int visitStringTree(AST t, Integer level) {
+            return level;
+        }
+
+        @Override
+        public int visitHexTree(AST t, Integer level) {
+            return level;
+        }
+
+        @Override
+        public int visitIdTree(AST t, Integer level) {
+            return level;
+        }
+
+        @Override
+        public int visitRelOpTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitAddOpTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitMultOpTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitUnlessTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitSelectTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitSelectBlockTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+
+        @Override
+        public int visitSelectorTree(AST t, Integer level) {
+            return visitKids(t, level + 1);
+        }
+    }
+}
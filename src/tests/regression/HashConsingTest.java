@@ -0,0 +1,88 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.BlockTree;
+import ast.FlatAst;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class HashConsingTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <int> + <int> * <int>",
+                    "  <id> = <int> + <int> * <int>",
+                    "  <id> = <id> - <int>",
+                    "  <id> = <id> - <int>",
+                    "}"));
+
+    @Test
+    public void testLiteralExpressionsShared() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        parser.setHashConsing(true);
+        AST block = parser.execute().getKid(1);
+
+        AST first = block.getKid(2).getKid(2), second = block.getKid(3).getKid(2);
+        assertSame(first, second);
+        assertSame(first.getKid(1), first.getKid(2).getKid(1));
+
+        // expressions using identifiers keep their own nodes
+        AST third = block.getKid(4).getKid(2), fourth = block.getKid(5).getKid(2);
+        assertNotSame(third, fourth);
+        assertNotSame(third.getKid(1), fourth.getKid(1));
+        assertSame(third.getKid(2), fourth.getKid(2));
+
+        // flattening stores a shared subtree at each place it appears
+        FlatAst flat = FlatAst.from(block);
+        assertEquals(FlatAst.from(new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute().getKid(1)).size(),
+                flat.size());
+    }
+
+    @Test
+    public void testStructuralHash() throws Exception {
+        AST block = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute().getKid(1);
+
+        AST first = block.getKid(2).getKid(2), second = block.getKid(3).getKid(2);
+        assertNotSame(first, second);
+        assertEquals(first.structuralHash(), second.structuralHash());
+        assertTrue(first.structurallyEquals(second));
+
+        AST third = block.getKid(4).getKid(2);
+        assertTrue(third.structurallyEquals(block.getKid(5).getKid(2)));
+        assertFalse(first.structurallyEquals(third));
+        assertFalse(block.getKid(2).structurallyEquals(block.getKid(4)));
+    }
+
+    @Test
+    public void testHashSeesEditsBelow() throws Exception {
+        String program = "program { while <id> { { <id> = <int> } } }";
+        AST a = new Parser(Helpers.lexerFromPseudoProgram(program)).execute();
+        AST b = new Parser(Helpers.lexerFromPseudoProgram(program)).execute();
+        assertEquals(a.structuralHash(), b.structuralHash());
+
+        // an edit deep in the tree changes the hash of every node above it
+        a.getKid(1).getKid(1).getKid(2).getKid(1).addKid(new BlockTree());
+        assertNotEquals(a.structuralHash(), b.structuralHash());
+        assertFalse(a.structurallyEquals(b));
+
+        // and so does putting back an unedited copy
+        AST copy = new Parser(Helpers.lexerFromPseudoProgram(program)).execute();
+        a.getKid(1).getKid(1).replaceKid(2, copy.getKid(1).getKid(1).getKid(2));
+        assertEquals(a.structuralHash(), b.structuralHash());
+        assertTrue(a.structurallyEquals(b));
+    }
+}
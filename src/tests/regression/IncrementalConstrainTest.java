@@ -0,0 +1,129 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ast.AST;
+import ast.NodeKind;
+import constrain.ConstrainResult;
+import constrain.Constrainer;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class IncrementalConstrainTest {
+
+    private ForkJoinPool pool;
+    private Parser parser;
+    private AST program;
+    private Constrainer constrainer;
+    // the function declarations f, g and h
+    private AST f, g, h;
+
+    @Before
+    public void setUp() throws Exception {
+        Path source = Files.createTempFile("incremental", ".x");
+        Files.write(source, List.of(
+                "program { int i",
+                "  int f(int a) { return a + 1 }",
+                "  int g(int b) { return f(b) }",
+                "  int h(int c) { return c * 2 }",
+                "  i = h(1)",
+                "}"));
+        try {
+            parser = new Parser(source.toString());
+            program = parser.execute();
+        } finally {
+            Files.deleteIfExists(source);
+        }
+
+        AST block = program.getKid(1);
+        f = block.getKid(2);
+        g = block.getKid(3);
+        h = block.getKid(4);
+
+        pool = new ForkJoinPool(4);
+        constrainer = new Constrainer(program);
+        constrainer.indexUses();
+        assertFalse(constrainer.executeParallel(pool).hasErrors());
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return the expression returned by function
+     */
+    private static AST returned(AST function) {
+        return function.getKid(4).getKid(1).getKid(1);
+    }
+
+    @Test
+    public void testBodyEditChecksOnlyThatBody() {
+        returned(f).setDecoration(null);
+        returned(g).setDecoration(null);
+
+        assertFalse(constrainer.recheck(List.of(f), pool).hasErrors());
+        assertNotNull(returned(f).getDecoration());
+        // f's signature is the same, so g is not checked again
+        assertNull(returned(g).getDecoration());
+    }
+
+    @Test
+    public void testSignatureChangeChecksCallers() {
+        returned(g).setDecoration(null);
+        returned(h).setDecoration(null);
+        // int f(boolean a)
+        f.getKid(3).getKid(1).replaceKid(1, edit(NodeKind.BoolType));
+
+        ConstrainResult result = constrainer.recheck(List.of(f), pool);
+        assertNotNull(returned(g).getDecoration());
+        assertNull(returned(h).getDecoration());
+        assertEquals(sequential(), Helpers.describe(result));
+        // g's call of f is indexed again
+        assertSame(f, result.getIndex().declOf(returned(g).getKid(1)));
+    }
+
+    @Test
+    public void testSignatureChangeChecksProgram() {
+        // boolean h(int c)
+        h.replaceKid(1, edit(NodeKind.BoolType));
+
+        ConstrainResult result = constrainer.recheck(List.of(h), pool);
+        assertEquals(List.of(Constrainer.ConstrainerErrors.BadReturnExpr, Constrainer.ConstrainerErrors.BadAssignmentType),
+                Helpers.errors(result));
+        assertEquals(sequential(), Helpers.describe(result));
+    }
+
+    /**
+     * @return a new node for an edit, numbered after the parsed ones by the
+     *         program's AstContext as an editor would number it
+     */
+    private AST edit(NodeKind kind) {
+        int parsed = parser.getContext().getNodeCount();
+        AST t = parser.getContext().newTree(kind, null);
+        assertEquals(parsed + 1, t.getNodeNum());
+        return t;
+    }
+
+    /**
+     * @return the errors found by constraining the edited program from the
+     *         start
+     */
+    private List<String> sequential() {
+        return Helpers.describe(new Constrainer(program).execute());
+    }
+}
@@ -0,0 +1,97 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.DeclTree;
+import ast.IdTree;
+import codegen.Codegen;
+import constrain.Constrainer;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class LexicalAddressTest {
+
+    // every identifier is x, so the function is declared last where it
+    // shadows nothing used later
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  { int <id> <id> = <id> }",
+                    "  while <id> < <int> { int <id> <id> = <id> + <int> }",
+                    "  {",
+                    "    int <id> ( int <id> , int <id> ) {",
+                    "      int <id>",
+                    "      { int <id> <id> = <id> + <int> }",
+                    "      { int <id> int <id> <id> = <id> * <id> }",
+                    "      return <id>",
+                    "    }",
+                    "  }",
+                    "}"));
+
+    @Test
+    public void testSlotsMatchFrames() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        AST program = parser.execute();
+        new Constrainer(program).execute();
+        // checks each declared slot against the frame it builds
+        new Codegen(program).execute();
+
+        List<IdTree> ids = new ArrayList<>(), declaredIds = new ArrayList<>();
+        collectIds(program, null, ids, declaredIds);
+        int declared = 0;
+        for (IdTree id : ids) {
+            AST decl = id.getDecoration();
+            if (declaredIds.contains(id)) {
+                assertTrue(id.getSlot() >= 0);
+                declared++;
+            } else if (decl != null && decl.getClass() == DeclTree.class) {
+                // a use: the slot of its declaration
+                assertEquals(((IdTree) decl.getKid(2)).getSlot(), id.getSlot());
+                assertEquals(((IdTree) decl.getKid(2)).getFunctionLevel(), id.getFunctionLevel());
+            }
+        }
+        assertTrue(declared >= 9);
+    }
+
+    @Test
+    public void testAddresses() throws Exception {
+        Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        AST program = parser.execute();
+        new Constrainer(program).execute();
+
+        AST function = program.getKid(1).getKid(4).getKid(1);
+        IdTree secondFormal = (IdTree) function.getKid(3).getKid(2).getKid(2);
+        IdTree local = (IdTree) function.getKid(4).getKid(1).getKid(2);
+        IdTree inner = (IdTree) function.getKid(4).getKid(3).getKid(2).getKid(2);
+        assertEquals(1, secondFormal.getFunctionLevel());
+        assertEquals(1, secondFormal.getSlot());
+        assertEquals(2, local.getSlot());
+        // the first inner block's variable has been popped
+        assertEquals(4, inner.getSlot());
+
+        IdTree global = (IdTree) program.getKid(1).getKid(1).getKid(2);
+        assertEquals(0, global.getFunctionLevel());
+        assertEquals(0, global.getSlot());
+    }
+
+    private static void collectIds(AST t, AST parent, List<IdTree> ids, List<IdTree> declaredIds) {
+        if (t.getClass() == IdTree.class) {
+            ids.add((IdTree) t);
+            if (parent != null && parent.getClass() == DeclTree.class) {
+                declaredIds.add((IdTree) t);
+            }
+        }
+        for (AST kid : t.getKids()) {
+            collectIds(kid, t, ids, declaredIds);
+        }
+    }
+}
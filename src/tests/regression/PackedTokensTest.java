@@ -0,0 +1,69 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.AddOpTree;
+import ast.AssignTree;
+import ast.BlockTree;
+import ast.DeclTree;
+import ast.IdTree;
+import ast.IntTree;
+import ast.IntTypeTree;
+import ast.ProgramTree;
+import lexer.PackedTokens;
+import lexer.Tokens;
+import parser.ParseListener;
+import parser.Parser;
+import parser.SyntaxError;
+import tests.helpers.Helpers;
+import tests.helpers.TestVisitor;
+import visitor.ASTVisitor;
+
+public class PackedTokensTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int>",
+                    "}"));
+
+    @Test
+    public void testParsePackedTokens() throws Exception {
+        PackedTokens tokens = PackedTokens.pack(Helpers.lexerFromPseudoProgram(PROGRAM));
+        final Parser parser = new Parser(tokens);
+
+        AST ast = parser.execute();
+        ASTVisitor visitor = new TestVisitor(List.of(
+                new ProgramTree(),
+                new BlockTree(),
+                new DeclTree(),
+                new IntTypeTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new AssignTree(),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new AddOpTree(Helpers.getTestToken("+")),
+                new IdTree(Helpers.getTestToken("<id>")),
+                new IntTree(Helpers.getTestToken("<int>"))));
+
+        assertEquals(null, ast.accept(visitor));
+    }
+
+    @Test
+    public void testSyntaxErrorHasToken() throws Exception {
+        PackedTokens tokens = PackedTokens.pack(Helpers.lexerFromPseudoProgram("program { <id> = = }"));
+        final Parser parser = new Parser(tokens);
+
+        SyntaxError e = assertThrows(SyntaxError.class, () -> parser.parse(new ParseListener() {}));
+
+        assertEquals(Tokens.Identifier, e.getKindExpected());
+        assertEquals(Tokens.Assign, e.getTokenFound().getKind());
+    }
+}
@@ -0,0 +1,84 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import ast.AST;
+import constrain.Constrainer;
+import constrain.Prelude;
+import parser.Parser;
+import visitor.PrintVisitor;
+import visitor.TreeWalker;
+
+public class ParallelConstrainTest {
+
+    @Test
+    public void testSameDecorationsAsSequential() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("program { int i int j");
+        for (int f = 0; f < 12; f++) {
+            lines.add("  int f" + f + "(int a, int b) {");
+            lines.add("    int c");
+            lines.add("    int g(int d) { return d * a }");
+            lines.add("    c = g(a) + b");
+            lines.add("    if c < 10 then { c = f" + f + "(c, b) } else { c = i }");
+            if (f > 0) {
+                lines.add("    c = f" + (f - 1) + "(c, j)");
+            }
+            lines.add("    while c < b { int k k = c c = k + 1 }");
+            lines.add("    return write(c)");
+            lines.add("  }");
+        }
+        lines.add("  i = read() j = f11(i, 3)");
+        lines.add("  { int z z = f0(i, j) j = write(z) }");
+        lines.add("}");
+        Path source = Files.createTempFile("parallel", ".x");
+        Files.write(source, lines);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String sequential = constrain(source, null);
+            for (int run = 0; run < 5; run++) {
+                assertEquals(sequential, constrain(source, pool));
+            }
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * @return the decorated tree as printed, with the intrinsic trees
+     */
+    private static String constrain(Path source, ForkJoinPool pool) throws Exception {
+        Parser parser = new Parser(source.toString());
+        AST program = parser.execute();
+        Constrainer constrainer = new Constrainer(program);
+        if (pool == null) {
+            constrainer.execute();
+        } else {
+            constrainer.executeParallel(pool);
+        }
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes));
+        try {
+            for (AST t : List.of(program, Prelude.get().readTree, Prelude.get().writeTree)) {
+                TreeWalker.walk(t, new PrintVisitor());
+            }
+        } finally {
+            System.setOut(out);
+        }
+        return bytes.toString();
+    }
+}
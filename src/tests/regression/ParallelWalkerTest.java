@@ -0,0 +1,51 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import ast.AST;
+import parser.Parser;
+import tests.helpers.Helpers;
+import visitor.CountVisitor;
+import visitor.ParallelWalker;
+import visitor.TreeWalker;
+
+public class ParallelWalkerTest {
+
+    @Test
+    public void testParallelCountMatchesSerial() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("program {");
+        lines.add("  int <id>");
+        for (int i = 0; i < 20; i++) {
+            lines.add("  int <id> ( int <id> ) {");
+            lines.add("    while <id> < <int> { if <id> then { <id> = <id> + <int> } }");
+            lines.add("    return <id> * <int>");
+            lines.add("  }");
+        }
+        lines.add("  { <id> = <int> { <id> = <int> } }");
+        lines.add("}");
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(
+                String.join(System.lineSeparator(), lines))).execute();
+
+        CountVisitor serial = new CountVisitor();
+        TreeWalker.walk(program, serial);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int splitSize : new int[] { 1, 4, 16, ParallelWalker.SPLIT_SIZE }) {
+                CountVisitor parallel = new ParallelWalker<CountVisitor>(pool,
+                        (subtree, depth) -> new CountVisitor(depth), CountVisitor::merge, splitSize)
+                        .walk(program);
+                assertArrayEquals(serial.getCount(), parallel.getCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
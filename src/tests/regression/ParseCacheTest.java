@@ -0,0 +1,157 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ast.AST;
+import ast.FlatAst;
+import parser.AstBuilder;
+import parser.ParseCache;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class ParseCacheTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int i int j",
+                    "  i = 1 + 2 * j",
+                    "  if (i <= j) then { i = 0 } else { j = 0 }",
+                    "}"));
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("parse-cache");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testHitSkipsParsing() throws Exception {
+        Path source = write("a.x", PROGRAM);
+        ParseCache cache = new ParseCache(directory.resolve("cache"), 1 << 20);
+
+        AST parsed = new Parser(source.toString(), cache).execute();
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        Parser parser = new Parser(source.toString(), cache);
+        AST cached = parser.execute();
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertNull(parser.getLex());
+
+        Helpers.assertSameTree(FlatAst.from(new Parser(source.toString()).execute()), FlatAst.from(parsed));
+        Helpers.assertSameTree(FlatAst.from(parsed), FlatAst.from(cached));
+        assertEquals(FlatAst.from(cached).maxNodeNum(), parser.getContext().getNodeCount());
+    }
+
+    @Test
+    public void testChangedSourceMisses() throws Exception {
+        Path source = write("a.x", PROGRAM);
+        ParseCache cache = new ParseCache(directory.resolve("cache"), 1 << 20);
+
+        new Parser(source.toString(), cache).execute();
+        write("a.x", PROGRAM + System.lineSeparator());
+        new Parser(source.toString(), cache).execute();
+
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEntriesSurviveAndAreEvicted() throws Exception {
+        Path a = write("a.x", PROGRAM);
+        Path b = write("b.x", "program { int k k = 7 }");
+        ParseCache cache = new ParseCache(directory.resolve("cache"), 1 << 20);
+        new Parser(a.toString(), cache).execute();
+        new Parser(b.toString(), cache).execute();
+        long total = cache.getTotalBytes();
+
+        // a new cache over the same directory finds both entries
+        ParseCache reopened = new ParseCache(directory.resolve("cache"), 1 << 20);
+        assertEquals(2, reopened.size());
+        new Parser(a.toString(), reopened).execute();
+        assertEquals(1, reopened.getHits());
+
+        // only room for one: the least recently used entry goes
+        ParseCache small = new ParseCache(directory.resolve("cache"), total - 1);
+        assertEquals(1, small.size());
+        new Parser(a.toString(), small).execute();
+        assertEquals(1, small.getHits());
+    }
+
+    @Test
+    public void testCorruptEntryMisses() throws Exception {
+        Path source = write("a.x", PROGRAM);
+        Path cacheDirectory = directory.resolve("cache");
+        ParseCache cache = new ParseCache(cacheDirectory, 1 << 20);
+        AST parsed = new Parser(source.toString(), cache).execute();
+
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                byte[] bytes = Files.readAllBytes(file);
+                Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+            }
+        }
+        AST reparsed = new Parser(source.toString(), cache).execute();
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        Helpers.assertSameTree(FlatAst.from(parsed), FlatAst.from(reparsed));
+
+        // the reparse stored the tree again
+        new Parser(source.toString(), cache).execute();
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testFlatHit() throws Exception {
+        Path source = write("a.x", PROGRAM);
+        ParseCache cache = new ParseCache(directory.resolve("cache"), 1 << 20);
+        FlatAst parsed = new Parser(source.toString(), cache).executeFlat();
+
+        Parser parser = new Parser(source.toString(), cache);
+        FlatAst cached = parser.executeFlat();
+        assertEquals(1, cache.getHits());
+        assertNull(parser.getLex());
+        Helpers.assertSameTree(parsed, cached);
+        assertEquals(cached.maxNodeNum(), parser.getContext().getNodeCount());
+    }
+
+    @Test
+    public void testOtherCommandsUnsupported() throws Exception {
+        Path source = write("a.x", PROGRAM);
+        Parser parser = new Parser(source.toString(), new ParseCache(directory.resolve("cache"), 1 << 20));
+
+        assertThrows(IllegalStateException.class, parser::executeWithRecovery);
+        assertThrows(IllegalStateException.class, () -> parser.parse(new AstBuilder(parser.getContext(), null)));
+    }
+
+    private Path write(String name, String program) throws Exception {
+        Path file = directory.resolve(name);
+        Files.writeString(file, program);
+        return file;
+    }
+}
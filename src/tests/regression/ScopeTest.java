@@ -0,0 +1,127 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.IntTree;
+import constrain.Constrainer;
+import constrain.Scope;
+import constrain.SymbolTable;
+import lexer.Symbol;
+import lexer.Tokens;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class ScopeTest {
+
+    @Test
+    public void testPutKeepsOldScope() {
+        Symbol a = Symbol.symbol("a", Tokens.Identifier), b = Symbol.symbol("b", Tokens.Identifier);
+        AST five = Helpers.value("5"), seven = Helpers.value("7");
+
+        Scope one = Scope.EMPTY.put(a, five);
+        Scope two = one.put(b, seven).put(a, seven);
+        assertSame(five, one.get(a));
+        assertNull(one.get(b));
+        assertSame(seven, two.get(a));
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+        assertEquals(0, Scope.EMPTY.size());
+    }
+
+    @Test
+    public void testManySymbols() {
+        // enough ids that many share their low bits
+        Scope scope = Scope.EMPTY;
+        for (int i = 0; i < 2000; i++) {
+            scope = scope.put(Symbol.symbol("s" + i, Tokens.Identifier), Helpers.value(Integer.toString(i)));
+        }
+        assertEquals(2000, scope.size());
+        assertEquals(2000, scope.keys().size());
+        for (int i = 0; i < 2000; i++) {
+            AST t = scope.get(Symbol.symbol("s" + i, Tokens.Identifier));
+            assertEquals(Integer.toString(i), ((IntTree) t).getSymbol().toString());
+        }
+        assertNull(scope.get(Symbol.symbol("s2000", Tokens.Identifier)));
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        Symbol a = Symbol.symbol("a", Tokens.Identifier), b = Symbol.symbol("b", Tokens.Identifier);
+        AST five = Helpers.value("5"), seven = Helpers.value("7");
+        SymbolTable table = new SymbolTable();
+        table.beginScope();
+        table.put(a, five);
+
+        SymbolTable copy = table.snapshot();
+        table.put(b, seven);
+        copy.beginScope();
+        copy.put(a, seven);
+        assertSame(five, table.get(a));
+        assertNull(copy.get(b));
+        assertSame(seven, copy.get(a));
+
+        copy.endScope();
+        assertSame(five, copy.get(a));
+    }
+
+    @Test
+    public void testScopesBuiltOnDemand() {
+        Symbol a = Symbol.symbol("a", Tokens.Identifier), b = Symbol.symbol("b", Tokens.Identifier),
+                c = Symbol.symbol("c", Tokens.Identifier);
+        AST five = Helpers.value("5"), seven = Helpers.value("7"), nine = Helpers.value("9");
+        SymbolTable table = new SymbolTable();
+        table.beginScope();
+        table.put(a, five);
+        Scope outer = table.getScope();
+        assertSame(outer, table.getScope());
+
+        table.beginScope();
+        table.put(b, seven);
+        table.put(a, nine);
+        Scope inner = table.getScope();
+        table.put(c, five);
+        assertSame(nine, inner.get(a));
+        assertNull(inner.get(c));
+        assertEquals(3, table.getScope().size());
+        table.endScope();
+
+        // back to the bindings of the outer scope, built before the inner one
+        assertSame(outer, table.getScope());
+        table.put(c, seven);
+        Scope after = table.getScope();
+        assertSame(five, after.get(a));
+        assertNull(after.get(b));
+        assertSame(seven, after.get(c));
+        assertSame(nine, inner.get(a));
+    }
+
+    @Test
+    public void testBlocksKeepTheirScopes() throws Exception {
+        Path source = Files.createTempFile("scope", ".x");
+        Files.write(source, List.of("program { int i { int j j = i } i = 1 }"));
+        try {
+            Parser parser = new Parser(source.toString());
+            AST program = parser.execute();
+            Constrainer constrainer = new Constrainer(program);
+            constrainer.execute();
+
+            Symbol i = Symbol.symbol("i", Tokens.Identifier), j = Symbol.symbol("j", Tokens.Identifier);
+            AST outer = program.getKid(1), inner = outer.getKid(2);
+            assertSame(outer.getKid(1), constrainer.getScope(outer).get(i));
+            assertNull(constrainer.getScope(outer).get(j));
+            assertSame(outer.getKid(1), constrainer.getScope(inner).get(i));
+            assertSame(inner.getKid(1), constrainer.getScope(inner).get(j));
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+}
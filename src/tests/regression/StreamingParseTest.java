@@ -0,0 +1,88 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import lexer.Symbol;
+import lexer.Tokens;
+import parser.ParseListener;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class StreamingParseTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  int <id> ( int <id> ) {",
+                    "    return <id> + <int> * <id>",
+                    "  }",
+                    "  <id> = <id> ( <id> ( <int> ) )",
+                    "}"));
+
+    private static class Recorder implements ParseListener {
+        List<String> events = new ArrayList<>();
+        int depth = 0, maxDepth = 0;
+
+        @Override
+        public void enterBlock() {
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        @Override
+        public void exitBlock() {
+            depth--;
+        }
+
+        @Override
+        public void decl(Tokens type, Symbol name) {
+            events.add("decl " + type);
+        }
+
+        @Override
+        public void enterFunctionDecl(Tokens type, Symbol name) {
+            events.add("function " + type);
+        }
+
+        @Override
+        public void enterCall(Symbol name) {
+            events.add("call");
+        }
+
+        @Override
+        public void enterAddOp(Symbol op) {
+            events.add("add");
+        }
+
+        @Override
+        public void enterMultOp(Symbol op) {
+            events.add("mult");
+        }
+
+        @Override
+        public void intLit(Symbol value) {
+            events.add("int");
+        }
+    }
+
+    @Test
+    public void testEventsInSourceOrder() throws Exception {
+        final Parser parser = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM));
+        Recorder recorder = new Recorder();
+
+        parser.parse(recorder);
+
+        assertEquals(
+                List.of("decl Int", "function Int", "decl Int", "add", "int", "mult",
+                        "call", "call", "int"),
+                recorder.events);
+        assertEquals(0, recorder.depth);
+        assertEquals(2, recorder.maxDepth);
+    }
+}
@@ -0,0 +1,70 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.IntTree;
+import constrain.SymbolTable;
+import lexer.Symbol;
+import lexer.Tokens;
+import tests.helpers.Helpers;
+
+public class SymbolTableTest {
+
+    @Test
+    public void testScopesRestoreBindings() {
+        Symbol a = Symbol.symbol("a", Tokens.Identifier), b = Symbol.symbol("b", Tokens.Identifier);
+        AST five = Helpers.value("5"), seven = Helpers.value("7"), nine = Helpers.value("9");
+        SymbolTable table = new SymbolTable();
+
+        table.beginScope();
+        table.put(a, five);
+        table.beginScope();
+        table.put(b, seven);
+        table.put(a, nine);
+        assertEquals(nine, table.get(a));
+        assertEquals(seven, table.get(b));
+        assertEquals(Set.of(a, b), table.keys());
+
+        table.endScope();
+        assertEquals(five, table.get(a));
+        assertNull(table.get(b));
+        assertEquals(Set.of(a), table.keys());
+
+        table.endScope();
+        assertNull(table.get(a));
+    }
+
+    @Test
+    public void testRedefinitionInOneScope() {
+        Symbol c = Symbol.symbol("c", Tokens.Identifier);
+        SymbolTable table = new SymbolTable();
+
+        table.beginScope();
+        table.put(c, Helpers.value("1"));
+        table.beginScope();
+        for (int i = 0; i < 200; i++) {
+            table.put(c, Helpers.value("2"));
+        }
+        table.endScope();
+        assertEquals("1", ((IntTree) table.get(c)).getSymbol().toString());
+    }
+
+    @Test
+    public void testManySymbols() {
+        SymbolTable table = new SymbolTable();
+        table.beginScope();
+        for (int i = 0; i < 1000; i++) {
+            table.put(Symbol.symbol("v" + i, Tokens.Identifier), Helpers.value(Integer.toString(i)));
+        }
+        assertEquals("999",
+                ((IntTree) table.get(Symbol.symbol("v999", Tokens.Identifier))).getSymbol().toString());
+        table.endScope();
+        assertNull(table.get(Symbol.symbol("v999", Tokens.Identifier)));
+    }
+}
@@ -0,0 +1,66 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import ast.BlockTree;
+import parser.Parser;
+import tests.helpers.Helpers;
+import visitor.CountVisitor;
+import visitor.PrintVisitor;
+import visitor.TreeWalker;
+
+public class TreeWalkerTest {
+
+    private static final String PROGRAM = String.join(
+            System.lineSeparator(),
+            List.of(
+                    "program {",
+                    "  int <id>",
+                    "  <id> = <id> + <int> * <int>",
+                    "  while <id> < <int> { if <id> then { <id> = <int> } }",
+                    "}"));
+
+    @Test
+    public void testWalkedPrintMatchesVisit() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+
+        String visited = Helpers.capture(() -> program.accept(new PrintVisitor()));
+        String walked = Helpers.capture(() -> TreeWalker.walk(program, new PrintVisitor()));
+        assertEquals(visited, walked);
+    }
+
+    @Test
+    public void testWalkedCountMatchesVisit() throws Exception {
+        AST program = new Parser(Helpers.lexerFromPseudoProgram(PROGRAM)).execute();
+        CountVisitor visited = new CountVisitor();
+        program.accept(visited);
+        CountVisitor walked = new CountVisitor();
+        TreeWalker.walk(program, walked);
+
+        assertArrayEquals(visited.getCount(), walked.getCount());
+    }
+
+    @Test
+    public void testWalkDeepTree() {
+        int depth = 200000;
+        AST root = new BlockTree();
+        AST t = root;
+        for (int i = 1; i < depth; i++) {
+            AST kid = new BlockTree();
+            t.addKid(kid);
+            t = kid;
+        }
+
+        CountVisitor counter = new CountVisitor();
+        TreeWalker.walk(root, counter);
+        int[] count = counter.getCount();
+        assertEquals(depth, count.length);
+        assertEquals(1, count[depth - 1]);
+    }
+}
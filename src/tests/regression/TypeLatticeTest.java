@@ -0,0 +1,105 @@
+package tests.regression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import ast.AST;
+import constrain.Constrainer;
+import constrain.Prelude;
+import constrain.Type;
+import lexer.Tokens;
+import parser.Parser;
+import tests.helpers.Helpers;
+
+public class TypeLatticeTest {
+
+    @Test
+    public void testOperatorResults() {
+        assertSame(Type.INT, Type.result(Tokens.Plus, Type.INT, Type.INT));
+        assertSame(Type.HEX, Type.result(Tokens.Multiply, Type.HEX, Type.HEX));
+        assertSame(Type.STRING, Type.result(Tokens.Plus, Type.STRING, Type.STRING));
+        assertNull(Type.result(Tokens.Minus, Type.STRING, Type.STRING));
+        assertNull(Type.result(Tokens.Plus, Type.INT, Type.HEX));
+        assertNull(Type.result(Tokens.Plus, Type.BOOL, Type.BOOL));
+        assertSame(Type.BOOL, Type.result(Tokens.Or, Type.BOOL, Type.BOOL));
+        assertSame(Type.BOOL, Type.result(Tokens.Equal, Type.STRING, Type.STRING));
+        assertSame(Type.BOOL, Type.result(Tokens.Less, Type.HEX, Type.HEX));
+        assertNull(Type.result(Tokens.Less, Type.BOOL, Type.BOOL));
+        assertNull(Type.result(Tokens.Equal, Type.INT, null));
+    }
+
+    @Test
+    public void testFunctionTypesAreInterned() {
+        Type.Functions functions = new Type.Functions();
+        Type f = functions.function(Type.INT, Type.STRING, Type.HEX);
+        assertSame(f, functions.function(Type.INT, Type.STRING, Type.HEX));
+        assertNotSame(f, functions.function(Type.INT, Type.HEX, Type.STRING));
+        // each compilation interns its own function types
+        assertNotSame(f, new Type.Functions().function(Type.INT, Type.STRING, Type.HEX));
+        assertEquals(2, f.paramCount());
+        assertSame(Type.HEX, f.getParam(1));
+        assertEquals("int(string, hex)", f.toString());
+        assertNull(Type.result(Tokens.Equal, f, f));
+    }
+
+    @Test
+    public void testStringAndHexDecorations() throws Exception {
+        Prelude prelude = Prelude.get();
+
+        for (String type : new String[] { "string", "hex" }) {
+            Parser parser = new Parser(Helpers.lexerFromPseudoProgram(String.format(
+                    "program { %1$s <id> <id> = <id> + <%1$s> }", type)));
+            AST program = parser.execute();
+            new Constrainer(program).execute();
+
+            AST typeTree = type.equals("string") ? prelude.stringTree : prelude.hexTree;
+            AST block = program.getKid(1);
+            assertSame(typeTree, block.getKid(1).getKid(2).getDecoration());
+            // the sum and the literal are decorated with the type tree
+            AST sum = block.getKid(2).getKid(2);
+            assertSame(typeTree, sum.getDecoration());
+            assertSame(typeTree, sum.getKid(2).getDecoration());
+        }
+    }
+
+    @Test
+    public void testFunctionSignatures() throws Exception {
+        Path source = Files.createTempFile("signature", ".x");
+        Files.write(source, List.of(
+                "program { int i",
+                "  boolean f(int a, string s, hex h) { return a < 1 }",
+                "  int g() { return 1 }",
+                "  int h(int a) { return a }",
+                "  i = g()",
+                "}"));
+        try {
+            Parser parser = new Parser(source.toString());
+            AST program = parser.execute();
+            Constrainer constrainer = new Constrainer(program);
+            constrainer.execute();
+
+            AST block = program.getKid(1);
+            Type f = constrainer.getSignature(block.getKid(2));
+            assertEquals("boolean(int, string, hex)", f.toString());
+            assertSame(Type.BOOL, f.getResult());
+            assertSame(Type.HEX, f.getParam(2));
+            assertEquals("int()", constrainer.getSignature(block.getKid(3)).toString());
+            // h has the same signature as write, but write was constrained
+            // with the prelude
+            Type h = constrainer.getSignature(block.getKid(4));
+            Type write = constrainer.getSignature(Prelude.get().writeTree);
+            assertEquals(write.toString(), h.toString());
+            assertNotSame(write, h);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+}
@@ -1,29 +1,75 @@
 package visitor;
 
 import ast.AST;
+import java.util.Arrays;
 
 /**
+ * Counts the nodes at each depth of a tree; driven by a TreeWalker it
+ * counts without a visit per node
  *
  * @author Lowell Milliken
  */
-public class CountVisitor extends ASTVisitor {
+public class CountVisitor extends ASTVisitor implements TreeWalker.Callbacks {
 
     private int[] nCount = new int[100];
     private int depth = 0;
     private int maxDepth = 0;
 
+    public CountVisitor() {
+    }
+
+    /**
+     * @param depth is the depth of the root of the trees to be counted, e.g.
+     *              for a subtree counted by a ParallelWalker
+     */
+    public CountVisitor(int depth) {
+        this.depth = depth;
+    }
+
     private void count(AST t) {
+        countNode();
+
+        depth++;
+        visitKids(t);
+        depth--;
+    }
+
+    private void countNode() {
+        if (depth >= nCount.length) {
+            nCount = Arrays.copyOf(nCount, 2 * depth);
+        }
         nCount[depth]++;
 
         if (depth > maxDepth) {
             maxDepth = depth;
         }
+    }
 
+    @Override
+    public boolean enter(AST t) {
+        countNode();
         depth++;
-        visitKids(t);
+        return true;
+    }
+
+    @Override
+    public void exit(AST t) {
         depth--;
     }
 
+    /**
+     * add the counts of other, e.g. those of a subtree, to this visitor's
+     */
+    public void merge(CountVisitor other) {
+        if (other.maxDepth >= nCount.length) {
+            nCount = Arrays.copyOf(nCount, other.maxDepth + 1);
+        }
+        for (int i = 0; i <= other.maxDepth; i++) {
+            nCount[i] += other.nCount[i];
+        }
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+    }
+
     public int[] getCount() {
         int[] count = new int[maxDepth + 1];
 
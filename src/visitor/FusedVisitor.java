@@ -0,0 +1,62 @@
+package visitor;
+
+import ast.AST;
+
+/**
+ * A FusedVisitor runs several read-only visitors in one TreeWalker walk:
+ * each node is given to every visitor in turn, so the tree is traversed
+ * once however many visitors there are, e.g.
+ * <pre>
+ *     TreeWalker.walk(t, new FusedVisitor(printVisitor, countVisitor));
+ * </pre>
+ * A visitor that skips a node's kids (see TreeWalker.Callbacks.enter) has
+ * them skipped as if it were walking alone, while the others still visit
+ * them. The visitors must not depend on each other's results
+ */
+public class FusedVisitor implements TreeWalker.Callbacks {
+
+    private final TreeWalker.Callbacks[] visitors;
+    // skipped[i] is the number of levels visitor i is below the node whose
+    // kids it skipped, counting that node; 0 while it is visiting
+    private final int[] skipped;
+
+    public FusedVisitor(TreeWalker.Callbacks... visitors) {
+        this.visitors = visitors.clone();
+        this.skipped = new int[visitors.length];
+    }
+
+    @Override
+    public boolean enter(AST t) {
+        boolean visiting = false;
+
+        for (int i = 0; i < visitors.length; i++) {
+            if (skipped[i] > 0) {
+                skipped[i]++;
+            } else if (visitors[i].enter(t)) {
+                visiting = true;
+            } else {
+                skipped[i] = 1;
+            }
+        }
+
+        if (!visiting) {
+            // every visitor skips t's subtree, so the walk skips it too and
+            // exit isn't called for t
+            for (int i = 0; i < visitors.length; i++) {
+                skipped[i]--;
+            }
+        }
+        return visiting;
+    }
+
+    @Override
+    public void exit(AST t) {
+        for (int i = 0; i < visitors.length; i++) {
+            if (skipped[i] > 0) {
+                skipped[i]--;
+            } else {
+                visitors[i].exit(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package visitor;
+
+import ast.*;
+
+/**
+ *  GenericVisitor is the typed counterpart of ASTVisitor: each visit returns
+ *  an R, so callers need no casts, and is given a context C, so a visitor
+ *  can pass state down the tree as an argument instead of keeping it in
+ *  fields<br>
+ *  e.g. a visitor working out the type of an expression could extend
+ *  GenericVisitor&lt;AST, Table&gt; and return the type tree directly<br>
+ *  Visitors with int results should extend IntVisitor, which avoids
+ *  boxing them
+ */
+public abstract class GenericVisitor<R, C> {
+
+    /**
+     *  visit t's kids in order with the same context
+     *  @return the result of the last kid's visit, or null if t has no kids
+     */
+    public R visitKids(AST t, C context) {
+        R result = null;
+        for (int i = 1; i <= t.kidCount(); i++) {
+            result = t.getKid(i).accept(this, context);
+        }
+        return result;
+    }
+
+    public abstract R visitProgramTree(AST t, C context);
+
+    public abstract R visitBlockTree(AST t, C context);
+
+    public abstract R visitFunctionDeclTree(AST t, C context);
+
+    public abstract R visitCallTree(AST t, C context);
+
+    public abstract R visitDeclTree(AST t, C context);
+
+    public abstract R visitIntTypeTree(AST t, C context);
+
+    public abstract R visitStringTypeTree(AST t, C context);
+
+    public abstract R visitHexTypeTree(AST t, C context);
+
+    public abstract R visitBoolTypeTree(AST t, C context);
+
+    public abstract R visitFormalsTree(AST t, C context);
+
+    public abstract R visitActualArgsTree(AST t, C context);
+
+    public abstract R visitIfTree(AST t, C context);
+
+    public abstract R visitWhileTree(AST t, C context);
+
+    public abstract R visitReturnTree(AST t, C context);
+
+    public abstract R visitAssignTree(AST t, C context);
+
+    public abstract R visitIntTree(AST t, C context);
+
+    public abstract R visitStringTree(AST t, C context);
+
+    public abstract R visitHexTree(AST t, C context);
+
+    public abstract R visitIdTree(AST t, C context);
+
+    public abstract R visitRelOpTree(AST t, C context);
+
+    public abstract R visitAddOpTree(AST t, C context);
+
+    public abstract R visitMultOpTree(AST t, C context);
+
+    public abstract R visitUnlessTree(AST t, C context);
+
+    public abstract R visitSelectTree(AST t, C context);
+
+    public abstract R visitSelectBlockTree(AST t, C context);
+
+    public abstract R visitSelectorTree(AST t, C context);
+}
@@ -0,0 +1,74 @@
+package visitor;
+
+import ast.*;
+
+/**
+ *  IntVisitor is the GenericVisitor for visits whose result is an int, e.g.
+ *  a count, a size or a frame offset; the result is returned unboxed
+ */
+public abstract class IntVisitor<C> {
+
+    /**
+     *  visit t's kids in order with the same context
+     *  @return the sum of the kids' results
+     */
+    public int visitKids(AST t, C context) {
+        int sum = 0;
+        for (int i = 1; i <= t.kidCount(); i++) {
+            sum += t.getKid(i).accept(this, context);
+        }
+        return sum;
+    }
+
+    public abstract int visitProgramTree(AST t, C context);
+
+    public abstract int visitBlockTree(AST t, C context);
+
+    public abstract int visitFunctionDeclTree(AST t, C context);
+
+    public abstract int visitCallTree(AST t, C context);
+
+    public abstract int visitDeclTree(AST t, C context);
+
+    public abstract int visitIntTypeTree(AST t, C context);
+
+    public abstract int visitStringTypeTree(AST t, C context);
+
+    public abstract int visitHexTypeTree(AST t, C context);
+
+    public abstract int visitBoolTypeTree(AST t, C context);
+
+    public abstract int visitFormalsTree(AST t, C context);
+
+    public abstract int visitActualArgsTree(AST t, C context);
+
+    public abstract int visitIfTree(AST t, C context);
+
+    public abstract int visitWhileTree(AST t, C context);
+
+    public abstract int visitReturnTree(AST t, C context);
+
+    public abstract int visitAssignTree(AST t, C context);
+
+    public abstract int visitIntTree(AST t, C context);
+
+    public abstract int visitStringTree(AST t, C context);
+
+    public abstract int visitHexTree(AST t, C context);
+
+    public abstract int visitIdTree(AST t, C context);
+
+    public abstract int visitRelOpTree(AST t, C context);
+
+    public abstract int visitAddOpTree(AST t, C context);
+
+    public abstract int visitMultOpTree(AST t, C context);
+
+    public abstract int visitUnlessTree(AST t, C context);
+
+    public abstract int visitSelectTree(AST t, C context);
+
+    public abstract int visitSelectBlockTree(AST t, C context);
+
+    public abstract int visitSelectorTree(AST t, C context);
+}
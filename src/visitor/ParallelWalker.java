@@ -0,0 +1,132 @@
+package visitor;
+
+import ast.AST;
+import ast.AstMetadata;
+import ast.NodeKind;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * A ParallelWalker runs a read-only analysis over a tree on a ForkJoinPool:
+ * the tree is split at function declarations and blocks, each piece is
+ * walked (see TreeWalker) by a visitor of its own, and the visitors are
+ * then merged into the one for the root, e.g.
+ * <pre>
+ *     CountVisitor counts = new ParallelWalker&lt;CountVisitor&gt;(
+ *             (subtree, depth) -&gt; new CountVisitor(depth), CountVisitor::merge)
+ *         .walk(t);
+ * </pre>
+ * A piece's visitor sees the nodes of its subtree except the pieces split
+ * off below it. Visitors are merged parent first, then the pieces in tree
+ * order, so the analysis must not depend on seeing a piece's nodes in the
+ * middle of its parent's walk<br>
+ * Only subtrees of at least splitSize nodes are split off; sizes come from
+ * the tree's AstMetadata (e.g. Parser.getMetadata), which walk(root)
+ * computes when it isn't given one
+ */
+public class ParallelWalker<V extends TreeWalker.Callbacks> {
+
+    public static final int SPLIT_SIZE = 512;
+
+    private final ForkJoinPool pool;
+    private final BiFunction<AST, Integer, V> newVisitor;
+    private final BiConsumer<V, V> merge;
+    private final int splitSize;
+
+    /**
+     * @param newVisitor makes the visitor for the subtree at a node, given
+     *                   the node's depth below the root of the walk
+     * @param merge      adds the results of its second visitor to its first
+     */
+    public ParallelWalker(BiFunction<AST, Integer, V> newVisitor, BiConsumer<V, V> merge) {
+        this(ForkJoinPool.commonPool(), newVisitor, merge, SPLIT_SIZE);
+    }
+
+    public ParallelWalker(ForkJoinPool pool, BiFunction<AST, Integer, V> newVisitor,
+            BiConsumer<V, V> merge, int splitSize) {
+        this.pool = pool;
+        this.newVisitor = newVisitor;
+        this.merge = merge;
+        this.splitSize = splitSize;
+    }
+
+    /**
+     * @return the visitor for root with the results of the whole tree
+     *         merged into it
+     */
+    public V walk(AST root) {
+        return walk(root, AstMetadata.compute(root));
+    }
+
+    /**
+     * @param metadata is the AstMetadata of the tree at root, as it is now
+     * @return the visitor for root with the results of the whole tree
+     *         merged into it
+     */
+    public V walk(AST root, AstMetadata metadata) {
+        return pool.invoke(new Piece(root, 0, metadata));
+    }
+
+    /**
+     * walks the subtree at root, forking a Piece for each subtree split off
+     * as the walk reaches it
+     */
+    private class Piece extends RecursiveTask<V> implements TreeWalker.Callbacks {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final AST root;
+        private final AstMetadata metadata;
+        private final V visitor;
+        private final ArrayList<Piece> pieces = new ArrayList<>();
+        private int depth;
+
+        Piece(AST root, int depth, AstMetadata metadata) {
+            this.root = root;
+            this.depth = depth;
+            this.metadata = metadata;
+            this.visitor = newVisitor.apply(root, depth);
+        }
+
+        @Override
+        protected V compute() {
+            TreeWalker.walk(root, this);
+            for (Piece piece : pieces) {
+                merge.accept(visitor, piece.join());
+            }
+            return visitor;
+        }
+
+        @Override
+        public boolean enter(AST t) {
+            if (t != root && isSplit(t)) {
+                Piece piece = new Piece(t, depth, metadata);
+                pieces.add(piece);
+                piece.fork();
+                return false;
+            }
+            if (!visitor.enter(t)) {
+                return false;
+            }
+            depth++;
+            return true;
+        }
+
+        @Override
+        public void exit(AST t) {
+            depth--;
+            visitor.exit(t);
+        }
+
+        private boolean isSplit(AST t) {
+            NodeKind kind = NodeKind.of(t);
+            return (kind == NodeKind.FunctionDecl || kind == NodeKind.Block)
+                    && metadata.subtreeEnd(t) - metadata.preorder(t) >= splitSize;
+        }
+    }
+}
@@ -12,19 +12,40 @@ import ast.*;
  * 5. Kid22
  * 6. Kid23
  * 7. Kid3
+ * A PrintVisitor can also be driven by a TreeWalker, which prints trees of
+ * any depth
  */
-public class PrintVisitor extends ASTVisitor {
+public class PrintVisitor extends ASTVisitor implements TreeWalker.Callbacks {
 
     private int indent = 0;
+    // set while a TreeWalker visits the kids instead of print
+    private boolean walking = false;
+    private boolean printed;
 
     private void printSpaces(int num) {
-        String s = "";
+        System.out.print(" ".repeat(num));
+    }
 
-        for (int i = 0; i < num; i++) {
-            s += ' ';
+    /**
+     * print t's node; SelectBlock and Selector nodes print nothing and
+     * their kids are skipped, as when the visitor recurses
+     */
+    @Override
+    public boolean enter(AST t) {
+        walking = true;
+        printed = false;
+        t.accept(this);
+        walking = false;
+
+        if (printed) {
+            indent += 2;
         }
+        return printed;
+    }
 
-        System.out.print(s);
+    @Override
+    public void exit(AST t) {
+        indent -= 2;
     }
 
     /**
@@ -60,7 +81,7 @@ public class PrintVisitor extends ASTVisitor {
         }
 
         if (t.getClass() == IdTree.class) {
-            int offset = ((IdTree) t).getFrameOffset();
+            int offset = ((IdTree) t).getSlot();
 
             if (offset >= 0) {
                 s += "  Addr: " + offset;
@@ -68,6 +89,10 @@ public class PrintVisitor extends ASTVisitor {
         }
 
         System.out.println(s);
+        printed = true;
+        if (walking) {
+            return;
+        }
 
         indent += 2;
         visitKids(t);
@@ -0,0 +1,76 @@
+package visitor;
+
+import ast.AST;
+import java.util.Arrays;
+
+/**
+ * TreeWalker visits a tree with an explicit work stack instead of the
+ * recursion of ASTVisitor.visitKids, so a tree of any depth can be walked
+ * without overflowing the call stack<br>
+ * A visitor opts in by implementing Callbacks; walk calls enter on each node
+ * in preorder and exit on it once its kids are done, e.g.
+ * <pre>
+ *     TreeWalker.walk(t, new PrintVisitor());
+ * </pre>
+ */
+public class TreeWalker {
+
+    /**
+     * The callbacks made by walk
+     */
+    public interface Callbacks {
+
+        /**
+         * called before t's kids are visited
+         *
+         * @return false to skip t's kids; exit is then not called for t
+         */
+        boolean enter(AST t);
+
+        /**
+         * called after t's kids have been visited
+         */
+        void exit(AST t);
+    }
+
+    private TreeWalker() {
+    }
+
+    /**
+     * walk the tree at root; next[i] is the number of the next kid of
+     * nodes[i] to visit (see AstMetadata, which walks trees the same way)
+     */
+    public static void walk(AST root, Callbacks callbacks) {
+        if (!callbacks.enter(root)) {
+            return;
+        }
+
+        AST[] nodes = new AST[16];
+        int[] next = new int[16];
+        int top = 0;
+        nodes[top] = root;
+        next[top++] = 1;
+
+        while (top > 0) {
+            AST t = nodes[top - 1];
+
+            if (next[top - 1] <= t.kidCount()) {
+                AST kid = t.getKid(next[top - 1]++);
+                if (!callbacks.enter(kid)) {
+                    continue;
+                }
+
+                if (top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, 2 * top);
+                    next = Arrays.copyOf(next, 2 * top);
+                }
+                nodes[top] = kid;
+                next[top++] = 1;
+                continue;
+            }
+
+            nodes[--top] = null;
+            callbacks.exit(t);
+        }
+    }
+}